@@ -1,6 +1,7 @@
 package ru.itq.generator;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.itq.api.dto.BatchCreateDocumentRequest;
 import ru.itq.api.dto.CreateDocumentRequest;
 
 import java.io.IOException;
@@ -9,8 +10,18 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 public class DocumentGeneratorApp {
@@ -22,64 +33,129 @@ public class DocumentGeneratorApp {
         Properties props = loadConfig(args);
         int count = Integer.parseInt(props.getProperty("generator.count", "100"));
         String baseUrl = props.getProperty("generator.base-url", "http://localhost:8080/api/documents");
-
-        LOG.info("Requested " + count + " documents, target URL: " + baseUrl);
+        int batchSize = Integer.parseInt(props.getProperty("generator.batch-size", "1"));
+        boolean scenario = "scenario".equals(props.getProperty("generator.mode", "create"));
+
+        LoadRunner.Settings settings = new LoadRunner.Settings(
+                Integer.parseInt(props.getProperty("generator.concurrency", "1")),
+                Double.parseDouble(props.getProperty("generator.rate", "0")),
+                Duration.ofSeconds(Long.parseLong(props.getProperty("generator.warmup-seconds", "0"))),
+                Duration.ofSeconds(Long.parseLong(props.getProperty("generator.duration-seconds", "0"))),
+                count > 0 ? (scenario ? count : (count + batchSize - 1) / batchSize) : 0);
+
+        LOG.info((scenario ? "Scenario mode, requested " + count + " operations" : "Requested " + count + " documents")
+                + ", target URL: " + baseUrl
+                + (batchSize > 1 && !scenario ? ", batch size: " + batchSize : "")
+                + ", concurrency: " + settings.concurrency()
+                + (settings.rate() > 0 ? ", rate: " + settings.rate() + " req/s" : "")
+                + (settings.warmup().isZero() ? "" : ", warmup: " + settings.warmup().toSeconds() + " s")
+                + (settings.duration().isZero() ? "" : ", duration: " + settings.duration().toSeconds() + " s"));
 
         HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
 
-        long totalStart = System.currentTimeMillis();
-        int successCount = 0;
-        int errorCount = 0;
-
-        for (int i = 1; i <= count; i++) {
-            try {
-                CreateDocumentRequest request = new CreateDocumentRequest(
-                        "Generator",
-                        "Document #" + i,
-                        "generator-util"
-                );
-
-                String body = MAPPER.writeValueAsString(request);
-
-                HttpRequest httpRequest = HttpRequest.newBuilder()
-                        .uri(URI.create(baseUrl))
-                        .header("Content-Type", "application/json")
-                        .POST(HttpRequest.BodyPublishers.ofString(body))
-                        .timeout(Duration.ofSeconds(30))
-                        .build();
-
-                HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-
-                if (response.statusCode() == 201) {
-                    successCount++;
-                } else {
-                    errorCount++;
-                    LOG.warning("Document #" + i + " creation failed: HTTP " + response.statusCode());
-                }
-            } catch (Exception e) {
-                errorCount++;
-                LOG.severe("Document #" + i + " error: " + e.getMessage());
-            }
+        Supplier<LoadRunner.Operation> workload;
+        Map<String, Object> scenarioSettings = null;
+        if (scenario) {
+            MixedScenario.Weights weights = new MixedScenario.Weights(
+                    Integer.parseInt(props.getProperty("generator.scenario.create", "40")),
+                    Integer.parseInt(props.getProperty("generator.scenario.submit", "10")),
+                    Integer.parseInt(props.getProperty("generator.scenario.approve", "10")),
+                    Integer.parseInt(props.getProperty("generator.scenario.get", "30")),
+                    Integer.parseInt(props.getProperty("generator.scenario.search", "10")));
+            int transitionBatchSize = Integer.parseInt(props.getProperty("generator.scenario.transition-batch-size", "50"));
+            LOG.info("Scenario weights: " + weights + ", transition batch size: " + transitionBatchSize);
+            workload = new MixedScenario(client, baseUrl, weights, transitionBatchSize);
+            scenarioSettings = new LinkedHashMap<>();
+            scenarioSettings.put("weights", weights);
+            scenarioSettings.put("transitionBatchSize", transitionBatchSize);
+        } else {
+            AtomicLong sequence = new AtomicLong();
+            LoadRunner.Operation create = batchSize > 1
+                    ? new LoadRunner.Operation("create-batch", () -> createBatch(client, baseUrl, sequence, batchSize))
+                    : new LoadRunner.Operation("create", () -> createOne(client, baseUrl, sequence.incrementAndGet()));
+            workload = () -> create;
+        }
+
+        LoadRunner.Result result = new LoadRunner(settings).run(workload);
 
-            if (i % 100 == 0 || i == count) {
-                LOG.info("Progress: created " + i + " of " + count
-                        + " (success=" + successCount + ", errors=" + errorCount + ")");
+        if (!scenario) {
+            long documents = result.stats().values().stream().mapToLong(OperationStats::success).sum() * batchSize;
+            LOG.info("Completed: created ~" + documents + " documents in "
+                    + String.format(Locale.ROOT, "%.1f", result.measuredSeconds()) + " s after warmup");
+        }
+        LoadReport.log(result);
+        writeReports(props, result, settings, scenarioSettings);
+    }
+
+    /**
+     * Machine-readable reports for comparing runs: generator.report.json is overwritten,
+     * generator.report.csv is appended to, both tagged with generator.report.label.
+     */
+    private static void writeReports(Properties props, LoadRunner.Result result, LoadRunner.Settings settings,
+                                     Map<String, Object> scenarioSettings) throws IOException {
+        String json = props.getProperty("generator.report.json", "");
+        String csv = props.getProperty("generator.report.csv", "");
+        String label = props.getProperty("generator.report.label", "");
+        if (label.isBlank()) {
+            label = Instant.now().toString();
+        }
+        if (!json.isBlank()) {
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("label", label);
+            run.put("timestamp", Instant.now().toString());
+            run.put("mode", scenarioSettings != null ? "scenario" : "create");
+            run.put("baseUrl", props.getProperty("generator.base-url"));
+            run.put("concurrency", settings.concurrency());
+            run.put("rate", settings.rate());
+            run.put("warmupSeconds", settings.warmup().toSeconds());
+            run.put("durationSeconds", settings.duration().toSeconds());
+            if (scenarioSettings != null) {
+                run.put("scenario", scenarioSettings);
             }
+            LoadReport.writeJson(result, run, Path.of(json));
         }
+        if (!csv.isBlank()) {
+            LoadReport.appendCsv(result, label, Path.of(csv));
+        }
+    }
+
+    private static int createOne(HttpClient client, String baseUrl, long n) throws Exception {
+        String body = MAPPER.writeValueAsString(new CreateDocumentRequest("Generator", "Document #" + n, "generator-util"));
+        return post(client, baseUrl, body, Duration.ofSeconds(30));
+    }
 
-        long totalElapsed = System.currentTimeMillis() - totalStart;
-        LOG.info("Completed: created " + successCount + " of " + count
-                + " documents in " + totalElapsed + " ms"
-                + " (errors=" + errorCount + ")");
+    /**
+     * One POST /batch of {@code batchSize} documents.
+     */
+    private static int createBatch(HttpClient client, String baseUrl, AtomicLong sequence, int batchSize)
+            throws Exception {
+        long first = sequence.getAndAdd(batchSize) + 1;
+        List<BatchCreateDocumentRequest.Item> items = new ArrayList<>(batchSize);
+        for (long i = first; i < first + batchSize; i++) {
+            items.add(new BatchCreateDocumentRequest.Item("Generator", "Document #" + i));
+        }
+        String body = MAPPER.writeValueAsString(new BatchCreateDocumentRequest(items, "generator-util"));
+        return post(client, baseUrl + "/batch", body, Duration.ofSeconds(120));
+    }
+
+    private static int post(HttpClient client, String url, String body, Duration timeout) throws Exception {
+        HttpRequest httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .timeout(timeout)
+                .build();
+        return client.send(httpRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
     }
 
     private static Properties loadConfig(String[] args) throws IOException {
         Properties props = new Properties();
 
         if (args.length > 0) {
-            try (InputStream is = java.nio.file.Files.newInputStream(java.nio.file.Path.of(args[0]))) {
+            try (InputStream is = Files.newInputStream(Path.of(args[0]))) {
                 props.load(is);
                 LOG.info("Loaded config from: " + args[0]);
                 return props;
@@ -0,0 +1,99 @@
+package ru.itq.generator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Summary of a {@link LoadRunner} run: per operation throughput, latency percentiles and
+ * error breakdown, logged and optionally written as JSON (one run per file) or appended
+ * to a CSV (one row per operation and run, for comparing builds over time).
+ */
+final class LoadReport {
+
+    private static final Logger LOG = Logger.getLogger(LoadReport.class.getName());
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String CSV_HEADER =
+            "label,operation,requests,success,errors,throughput_rps,p50_ms,p90_ms,p99_ms,max_ms,mean_ms";
+
+    private LoadReport() {
+    }
+
+    static void log(LoadRunner.Result result) {
+        double seconds = result.measuredSeconds();
+        LOG.info(String.format(Locale.ROOT, "Measured %.1f s", seconds));
+        for (Map.Entry<String, OperationStats> entry : result.stats().entrySet()) {
+            OperationStats stats = entry.getValue();
+            LatencyHistogram latency = stats.latency();
+            LOG.info(String.format(Locale.ROOT,
+                    "%s: requests=%d, success=%d, errors=%d, throughput=%.1f req/s, "
+                            + "latency ms p50=%.1f p90=%.1f p99=%.1f max=%.1f mean=%.1f",
+                    entry.getKey(), stats.requests(), stats.success(), stats.errorCount(),
+                    throughput(stats, seconds),
+                    latency.percentileMillis(50), latency.percentileMillis(90), latency.percentileMillis(99),
+                    latency.maxMillis(), latency.meanMillis()));
+            if (stats.errorCount() > 0) {
+                LOG.info(entry.getKey() + " errors: " + stats.errors());
+            }
+        }
+    }
+
+    /**
+     * @param run label, mode, settings and anything else identifying the run
+     */
+    static void writeJson(LoadRunner.Result result, Map<String, Object> run, Path path) throws IOException {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        result.stats().forEach((name, stats) -> {
+            LatencyHistogram latency = stats.latency();
+            Map<String, Object> op = new LinkedHashMap<>();
+            op.put("requests", stats.requests());
+            op.put("success", stats.success());
+            op.put("errors", stats.errorCount());
+            op.put("throughputRps", throughput(stats, result.measuredSeconds()));
+            Map<String, Object> latencyMs = new LinkedHashMap<>();
+            latencyMs.put("p50", latency.percentileMillis(50));
+            latencyMs.put("p90", latency.percentileMillis(90));
+            latencyMs.put("p99", latency.percentileMillis(99));
+            latencyMs.put("max", latency.maxMillis());
+            latencyMs.put("mean", latency.meanMillis());
+            op.put("latencyMs", latencyMs);
+            op.put("errorBreakdown", stats.errors());
+            operations.put(name, op);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>(run);
+        report.put("measuredSeconds", result.measuredSeconds());
+        report.put("operations", operations);
+        MAPPER.writeValue(path.toFile(), report);
+        LOG.info("JSON report written to " + path.toAbsolutePath());
+    }
+
+    static void appendCsv(LoadRunner.Result result, String label, Path path) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            csv.append(CSV_HEADER).append('\n');
+        }
+        result.stats().forEach((name, stats) -> {
+            LatencyHistogram latency = stats.latency();
+            csv.append(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f%n",
+                    label, name, stats.requests(), stats.success(), stats.errorCount(),
+                    throughput(stats, result.measuredSeconds()),
+                    latency.percentileMillis(50), latency.percentileMillis(90), latency.percentileMillis(99),
+                    latency.maxMillis(), latency.meanMillis()));
+        });
+        Files.writeString(path, csv, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        LOG.info("CSV report appended to " + path.toAbsolutePath());
+    }
+
+    private static double throughput(OperationStats stats, double seconds) {
+        return seconds > 0 ? stats.requests() / seconds : 0;
+    }
+}
@@ -0,0 +1,143 @@
+package ru.itq.generator;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Drives operations on virtual threads and records their latency per operation name.
+ * <p>
+ * With {@code rate > 0} the load is open-model: requests start on a fixed schedule whether
+ * or not earlier ones have finished, and latency is measured from the scheduled start, so a
+ * stalled server shows up as queueing time instead of silently lowering the load. At most
+ * {@code concurrency} requests are in flight. With {@code rate = 0} the load is closed-model:
+ * {@code concurrency} workers each send the next request as soon as the previous one returns.
+ * <p>
+ * Requests started during the warmup are executed but not recorded. The run stops after
+ * {@code maxRequests} requests or when the duration after warmup elapses, whichever is first
+ * (0 disables either limit).
+ */
+final class LoadRunner {
+
+    private static final Logger LOG = Logger.getLogger(LoadRunner.class.getName());
+
+    /**
+     * One request; {@code call} returns the HTTP status, 2xx counts as success.
+     */
+    record Operation(String name, Callable<Integer> call) {
+    }
+
+    record Settings(int concurrency, double rate, Duration warmup, Duration duration, long maxRequests) {
+    }
+
+    record Result(Map<String, OperationStats> stats, double measuredSeconds) {
+    }
+
+    private final Settings settings;
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    LoadRunner(Settings settings) {
+        this.settings = settings;
+    }
+
+    Result run(Supplier<Operation> operations) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureStart = start + settings.warmup().toNanos();
+        long end = settings.duration().isZero() ? Long.MAX_VALUE : measureStart + settings.duration().toNanos();
+        lastCompletion.set(measureStart);
+
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("load-progress").factory());
+        progress.scheduleAtFixedRate(this::logProgress, 5, 5, TimeUnit.SECONDS);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (settings.rate() > 0) {
+                runOpen(operations, executor, measureStart, end);
+            } else {
+                runClosed(operations, executor, measureStart, end);
+            }
+        } finally {
+            progress.shutdownNow();
+        }
+
+        // Until the last recorded completion: requests still queued at the end of the schedule count too
+        return new Result(stats, Math.max(0, lastCompletion.get() - measureStart) / 1e9);
+    }
+
+    private void runOpen(Supplier<Operation> operations, ExecutorService executor,
+                         long measureStart, long end) {
+        Semaphore inFlight = new Semaphore(settings.concurrency());
+        double intervalNanos = 1e9 / settings.rate();
+        long start = System.nanoTime();
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end || !reserveRequest()) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = operations.get();
+            executor.submit(() -> {
+                inFlight.acquireUninterruptibly();
+                try {
+                    execute(operation, intended, measureStart);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private void runClosed(Supplier<Operation> operations, ExecutorService executor,
+                           long measureStart, long end) {
+        for (int w = 0; w < settings.concurrency(); w++) {
+            executor.submit(() -> {
+                while (System.nanoTime() < end && reserveRequest()) {
+                    execute(operations.get(), System.nanoTime(), measureStart);
+                }
+            });
+        }
+    }
+
+    private boolean reserveRequest() {
+        return settings.maxRequests() <= 0 || issued.incrementAndGet() <= settings.maxRequests();
+    }
+
+    private void execute(Operation operation, long intendedStart, long measureStart) {
+        String error;
+        try {
+            int status = operation.call().call();
+            error = status >= 200 && status < 300 ? null : "HTTP " + status;
+        } catch (Exception e) {
+            error = e.getClass().getSimpleName();
+        }
+        long now = System.nanoTime();
+        completed.incrementAndGet();
+        if (intendedStart >= measureStart) {
+            stats.computeIfAbsent(operation.name(), k -> new OperationStats()).record(now - intendedStart, error);
+            lastCompletion.accumulateAndGet(now, Math::max);
+        }
+    }
+
+    private void logProgress() {
+        long success = stats.values().stream().mapToLong(OperationStats::success).sum();
+        long errors = stats.values().stream().mapToLong(OperationStats::errorCount).sum();
+        LOG.info("Progress: " + completed.get() + " requests completed (recorded success=" + success
+                + ", errors=" + errors + ")");
+    }
+}
@@ -0,0 +1,167 @@
+package ru.itq.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.itq.api.dto.BatchOperationRequest;
+import ru.itq.api.dto.CreateDocumentRequest;
+import ru.itq.api.dto.DocumentStatus;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Production-like mix of operations for {@link LoadRunner}, picked at random by weight:
+ * creates, /submit and /approve batches, getById polling and /search queries.
+ * <p>
+ * Documents move through the lifecycle: ids returned by create feed the submit batches, ids
+ * submitted successfully feed the approve batches, and getById polls a window of recently
+ * created ids. An operation whose input pool is still empty falls back to the previous stage
+ * (approve to submit, submit and get to create).
+ */
+final class MixedScenario implements Supplier<LoadRunner.Operation> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String INITIATOR = "generator-scenario";
+    private static final int RECENT_IDS = 10_000;
+    private static final DocumentStatus[] STATUSES = DocumentStatus.values();
+
+    record Weights(int create, int submit, int approve, int get, int search) {
+
+        int total() {
+            return create + submit + approve + get + search;
+        }
+    }
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Weights weights;
+    private final int transitionBatchSize;
+
+    private final Queue<Long> drafts = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> submitted = new ConcurrentLinkedQueue<>();
+    private final AtomicLongArray recentIds = new AtomicLongArray(RECENT_IDS);
+    private final AtomicLong createdCount = new AtomicLong();
+
+    MixedScenario(HttpClient client, String baseUrl, Weights weights, int transitionBatchSize) {
+        if (weights.total() <= 0) {
+            throw new IllegalArgumentException("Scenario weights must not all be zero");
+        }
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.weights = weights;
+        this.transitionBatchSize = transitionBatchSize;
+    }
+
+    @Override
+    public LoadRunner.Operation get() {
+        int pick = ThreadLocalRandom.current().nextInt(weights.total());
+        if ((pick -= weights.create()) < 0) {
+            return create();
+        }
+        if ((pick -= weights.submit()) < 0) {
+            return submit();
+        }
+        if ((pick -= weights.approve()) < 0) {
+            return approve();
+        }
+        if ((pick -= weights.get()) < 0) {
+            return getById();
+        }
+        return search();
+    }
+
+    private LoadRunner.Operation create() {
+        return new LoadRunner.Operation("create", () -> {
+            long n = createdCount.incrementAndGet();
+            HttpResponse<String> response = post(baseUrl,
+                    new CreateDocumentRequest("Scenario-" + (n % 100), "Scenario document #" + n, INITIATOR));
+            if (response.statusCode() == 201) {
+                long id = MAPPER.readTree(response.body()).get("id").asLong();
+                drafts.add(id);
+                recentIds.set((int) (n % RECENT_IDS), id);
+            }
+            return response.statusCode();
+        });
+    }
+
+    private LoadRunner.Operation submit() {
+        List<Long> ids = drain(drafts);
+        if (ids.isEmpty()) {
+            return create();
+        }
+        return new LoadRunner.Operation("submit", () -> {
+            HttpResponse<String> response = post(baseUrl + "/submit", new BatchOperationRequest(ids, INITIATOR));
+            if (response.statusCode() == 200) {
+                for (JsonNode result : MAPPER.readTree(response.body())) {
+                    if ("success".equals(result.get("result").asText())) {
+                        submitted.add(result.get("id").asLong());
+                    }
+                }
+            }
+            return response.statusCode();
+        });
+    }
+
+    private LoadRunner.Operation approve() {
+        List<Long> ids = drain(submitted);
+        if (ids.isEmpty()) {
+            return submit();
+        }
+        return new LoadRunner.Operation("approve", () ->
+                post(baseUrl + "/approve", new BatchOperationRequest(ids, INITIATOR)).statusCode());
+    }
+
+    private LoadRunner.Operation getById() {
+        long known = Math.min(createdCount.get(), RECENT_IDS);
+        long id = known == 0 ? 0 : recentIds.get(ThreadLocalRandom.current().nextInt((int) known));
+        if (id == 0) {
+            return create();
+        }
+        return new LoadRunner.Operation("get", () -> get(baseUrl + "/" + id).statusCode());
+    }
+
+    private LoadRunner.Operation search() {
+        DocumentStatus status = STATUSES[ThreadLocalRandom.current().nextInt(STATUSES.length)];
+        return new LoadRunner.Operation("search", () ->
+                get(baseUrl + "/search?status=" + status + "&page=0&size=20").statusCode());
+    }
+
+    private List<Long> drain(Queue<Long> queue) {
+        List<Long> ids = new ArrayList<>(transitionBatchSize);
+        Long id;
+        while (ids.size() < transitionBatchSize && (id = queue.poll()) != null) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private HttpResponse<String> post(String url, Object body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .GET()
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,50 @@
+package ru.itq.generator;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram plus success and per-cause error counts of one operation type.
+ */
+final class OperationStats {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder success = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    /**
+     * @param error null on success, otherwise the cause (e.g. "HTTP 409", "HttpTimeoutException")
+     */
+    void record(long latencyNanos, String error) {
+        latency.recordNanos(latencyNanos);
+        if (error == null) {
+            success.increment();
+        } else {
+            errors.computeIfAbsent(error, k -> new LongAdder()).increment();
+        }
+    }
+
+    LatencyHistogram latency() {
+        return latency;
+    }
+
+    long requests() {
+        return latency.count();
+    }
+
+    long success() {
+        return success.sum();
+    }
+
+    long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    Map<String, Long> errors() {
+        Map<String, Long> result = new TreeMap<>();
+        errors.forEach((cause, n) -> result.put(cause, n.sum()));
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.itq.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    private static final long MICRO = 1_000;
+
+    @Test
+    void empty_reportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.percentileMillis(99)).isZero();
+        assertThat(histogram.meanMillis()).isZero();
+        assertThat(histogram.maxMillis()).isZero();
+    }
+
+    @Test
+    void belowLinearLimit_percentilesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 60; micros++) {
+            histogram.recordNanos(micros * MICRO);
+        }
+
+        assertThat(histogram.percentileMillis(0)).isEqualTo(0.001);
+        assertThat(histogram.percentileMillis(50)).isEqualTo(0.030);
+        assertThat(histogram.percentileMillis(90)).isEqualTo(0.054);
+        assertThat(histogram.percentileMillis(100)).isEqualTo(0.060);
+    }
+
+    @Test
+    void bucketBoundaries_splitAtSubBucketWidth() {
+        // 64 and 65 us share the first log-linear bucket [64, 65]; 66 opens [66, 67]
+        assertThat(medianWithLargeOutlier(63)).isEqualTo(0.063);
+        assertThat(medianWithLargeOutlier(64)).isEqualTo(0.065);
+        assertThat(medianWithLargeOutlier(65)).isEqualTo(0.065);
+        assertThat(medianWithLargeOutlier(66)).isEqualTo(0.067);
+        // 1000 us: width 16 at 512..1023 us
+        assertThat(medianWithLargeOutlier(1000)).isEqualTo(1.007);
+    }
+
+    @Test
+    void anyValue_reportedWithinBucketError() {
+        for (long micros = 64; micros < 100_000_000; micros = micros * 3 / 2 + 1) {
+            double median = medianWithLargeOutlier(micros);
+
+            assertThat(median * 1_000).as("%d us", micros)
+                    .isGreaterThanOrEqualTo(micros)
+                    .isLessThanOrEqualTo(micros * (1 + 1.0 / 32));
+        }
+    }
+
+    @Test
+    void percentile_cappedAtExactMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(1000 * MICRO);
+
+        assertThat(histogram.percentileMillis(100)).isEqualTo(1.0);
+        assertThat(histogram.maxMillis()).isEqualTo(1.0);
+    }
+
+    @Test
+    void meanAndMax_exact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(1_000 * MICRO);
+        histogram.recordNanos(3_500 * MICRO);
+        histogram.recordNanos(-1);
+
+        assertThat(histogram.count()).isEqualTo(3);
+        assertThat(histogram.meanMillis()).isCloseTo(1.5, within(1e-9));
+        assertThat(histogram.maxMillis()).isEqualTo(3.5);
+        assertThat(histogram.percentileMillis(0)).isZero();
+    }
+
+    @Test
+    void concurrentRecorders_mergeIntoSameHistogramAsSequential() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        LatencyHistogram sequential = new LatencyHistogram();
+        LatencyHistogram concurrent = new LatencyHistogram();
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                sequential.recordNanos(latencyNanos(t, i));
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        concurrent.recordNanos(latencyNanos(thread, i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(concurrent.count()).isEqualTo((long) threads * perThread);
+        assertThat(concurrent.meanMillis()).isEqualTo(sequential.meanMillis());
+        assertThat(concurrent.maxMillis()).isEqualTo(sequential.maxMillis());
+        for (double percentile : new double[]{0, 50, 90, 99, 99.9, 100}) {
+            assertThat(concurrent.percentileMillis(percentile)).as("p%s", percentile)
+                    .isEqualTo(sequential.percentileMillis(percentile));
+        }
+    }
+
+    private static double medianWithLargeOutlier(long micros) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(micros * MICRO);
+        histogram.recordNanos(1_000_000_000 * MICRO);
+        return histogram.percentileMillis(50);
+    }
+
+    private static long latencyNanos(int thread, int i) {
+        // Spread over several powers of two, different per thread
+        return ((long) (i * 37 + thread * 1_000) % 250_000) * MICRO;
+    }
+}
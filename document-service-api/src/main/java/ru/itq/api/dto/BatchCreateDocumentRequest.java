@@ -0,0 +1,36 @@
+package ru.itq.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateDocumentRequest {
+
+    @NotEmpty(message = "Documents list must not be empty")
+    @Size(max = 10000, message = "Documents list must not exceed 10000 elements")
+    private List<@Valid Item> documents;
+
+    @NotBlank(message = "Initiator must not be blank")
+    private String initiator;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotBlank(message = "Author must not be blank")
+        private String author;
+
+        @NotBlank(message = "Title must not be blank")
+        private String title;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.itq.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a batch create: {@code ids[i]} and {@code documentNumbers[i]} belong to the
+ * i-th document of the request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCreateDocumentResponse {
+
+    private int created;
+    private List<Long> ids;
+    private List<String> documentNumbers;
+}
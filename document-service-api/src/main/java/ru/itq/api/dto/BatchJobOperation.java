@@ -0,0 +1,6 @@
+package ru.itq.api.dto;
+
+public enum BatchJobOperation {
+    SUBMIT,
+    APPROVE
+}
@@ -0,0 +1,29 @@
+package ru.itq.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchJobRequest {
+
+    public static final int MAX_IDS = 200_000;
+
+    @NotNull(message = "Operation must be SUBMIT or APPROVE")
+    private BatchJobOperation operation;
+
+    @NotEmpty(message = "IDs list must not be empty")
+    @Size(max = MAX_IDS, message = "IDs list must not exceed 200000 elements")
+    private List<Long> ids;
+
+    @NotBlank(message = "Initiator must not be blank")
+    private String initiator;
+}
@@ -0,0 +1,35 @@
+package ru.itq.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of an asynchronous batch job; {@code processed} counts ids whose result is committed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchJobResponse {
+
+    private Long id;
+    private BatchJobOperation operation;
+    private BatchJobStatus status;
+    private String initiator;
+    private int total;
+    private int processed;
+    private int success;
+    private int conflict;
+    private int notFound;
+    private int registryError;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,8 @@
+package ru.itq.api.dto;
+
+public enum BatchJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,23 @@
+package ru.itq.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the keyset search. {@code nextCursor} is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentCursorPage {
+
+    private List<DocumentResponse> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
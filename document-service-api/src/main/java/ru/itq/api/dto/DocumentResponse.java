@@ -25,4 +25,12 @@ public class DocumentResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<DocumentHistoryResponse> history;
+
+    /**
+     * Row projection without history, for JPQL/criteria constructor expressions.
+     */
+    public DocumentResponse(Long id, String documentNumber, String author, String title, DocumentStatus status,
+                            Long version, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, documentNumber, author, title, status, version, createdAt, updatedAt, null);
+    }
 }
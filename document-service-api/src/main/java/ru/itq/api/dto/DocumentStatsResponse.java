@@ -0,0 +1,18 @@
+package ru.itq.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStatsResponse {
+
+    private Map<DocumentStatus, Long> countsByStatus;
+    private long total;
+}
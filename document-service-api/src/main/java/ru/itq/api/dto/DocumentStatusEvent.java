@@ -0,0 +1,25 @@
+package ru.itq.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A document status change as delivered to outbox sinks. Delivery is at-least-once:
+ * consumers should skip {@code eventId}s they have already seen.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStatusEvent {
+
+    private Long eventId;
+    private Long documentId;
+    private DocumentStatus status;
+    private String performedBy;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,24 @@
+package ru.itq.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A document status as pushed to {@code /events} subscribers: the current status on subscription
+ * ({@code performedBy} is null) or a committed transition.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStreamEvent {
+
+    private Long documentId;
+    private DocumentStatus status;
+    private String performedBy;
+    private LocalDateTime occurredAt;
+}
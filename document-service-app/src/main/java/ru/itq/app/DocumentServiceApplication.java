@@ -3,6 +3,7 @@ package ru.itq.app;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -10,6 +11,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @EntityScan(basePackages = "ru.itq.core.domain.entity")
 @EnableJpaRepositories(basePackages = "ru.itq.core.persistence")
 @EnableScheduling
+@EnableCaching
 public class DocumentServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,118 @@
+package ru.itq.app.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.itq.core.domain.exception.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission for the expensive document endpoints (batch operations and search): at most
+ * {@code max-concurrent} of them run at once on this instance, and each initiator gets a token
+ * bucket of {@code burst} requests refilled at {@code rate} per second. Requests without an
+ * initiator get a bucket per client address, kept apart from the initiator buckets, so no request
+ * body can name a client's bucket. Both checks fail fast with
+ * {@link TooManyRequestsException} instead of queueing, so rejected requests hold no thread or
+ * connection and single-document reads keep the rest of the pool.
+ */
+@Component
+public class AdmissionControl {
+
+    private static final Permit UNCOUNTED = new Permit(null);
+
+    private final AdmissionProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Cache<String, TokenBucket> initiatorBuckets;
+    private final Cache<String, TokenBucket> clientBuckets;
+    private final Counter rejectedByConcurrency;
+    private final Counter rejectedByRate;
+
+    public AdmissionControl(AdmissionProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.initiatorBuckets = buckets(properties);
+        this.clientBuckets = buckets(properties);
+        Gauge.builder("document.admission.in_flight", inFlight, AtomicInteger::get)
+                .description("Batch and search requests in progress")
+                .register(registry);
+        this.rejectedByConcurrency = rejected(registry, "concurrency");
+        this.rejectedByRate = rejected(registry, "rate");
+    }
+
+    /**
+     * Admits one request of {@code initiator}; the permit must be closed when the request is done.
+     *
+     * @throws TooManyRequestsException if the instance is at its concurrency limit or the initiator
+     *                                  has no tokens left
+     */
+    public Permit admit(String initiator) {
+        return admit(initiatorBuckets, initiator, "initiator " + initiator);
+    }
+
+    /**
+     * Like {@link #admit}, for a request without an initiator, rate-limited by client address.
+     */
+    public Permit admitClient(String address) {
+        return admit(clientBuckets, address, "client " + address);
+    }
+
+    private Permit admit(Cache<String, TokenBucket> buckets, String key, String caller) {
+        if (!properties.isEnabled()) {
+            return UNCOUNTED;
+        }
+        if (inFlight.incrementAndGet() > properties.getMaxConcurrent()) {
+            inFlight.decrementAndGet();
+            rejectedByConcurrency.increment();
+            throw new TooManyRequestsException(
+                    "Too many concurrent batch and search requests, limit " + properties.getMaxConcurrent(), 1);
+        }
+        long waitNanos = buckets.get(key,
+                k -> new TokenBucket(properties.getBurst(), properties.getRate(), System.nanoTime()))
+                .tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            inFlight.decrementAndGet();
+            rejectedByRate.increment();
+            throw new TooManyRequestsException("Rate limit exceeded for " + caller,
+                    Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1))));
+        }
+        return new Permit(inFlight);
+    }
+
+    private static Cache<String, TokenBucket> buckets(AdmissionProperties properties) {
+        // An idle bucket is full again after burst / rate seconds; dropping it then loses nothing
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaxInitiators())
+                .expireAfterAccess(Duration.ofMillis(Math.max(1000, (long) (1000 * properties.getBurst() / properties.getRate()))))
+                .build();
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason) {
+        return Counter.builder("document.admission.rejected")
+                .description("Requests rejected with 429")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    public static final class Permit implements AutoCloseable {
+
+        private final AtomicInteger inFlight;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AtomicInteger inFlight) {
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public void close() {
+            if (inFlight != null && released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
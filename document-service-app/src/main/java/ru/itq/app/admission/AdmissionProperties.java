@@ -0,0 +1,35 @@
+package ru.itq.app.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Batch and search requests in progress at once on this instance; keep it well below the
+     * connection pool size so single-document reads still get connections.
+     */
+    private int maxConcurrent = 8;
+
+    /**
+     * Requests per second each initiator's bucket refills with.
+     */
+    private double rate = 10;
+
+    /**
+     * Bucket capacity: requests an idle initiator may send at once.
+     */
+    private int burst = 20;
+
+    /**
+     * Buckets kept in memory, for initiators and as many again for client addresses; the least
+     * recently used bucket is dropped first.
+     */
+    private int maxInitiators = 10000;
+}
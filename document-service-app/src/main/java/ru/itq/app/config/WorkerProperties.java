@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.lang.management.ManagementFactory;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "app.worker")
@@ -12,4 +14,32 @@ public class WorkerProperties {
     private int batchSize = 50;
     private long submitDelay = 30000;
     private long approveDelay = 30000;
+
+    /**
+     * Drain mode: keep claiming batches while work remains, adapting the batch size
+     * between minBatchSize and maxBatchSize; wait idleDelay only once the queue is empty.
+     */
+    private boolean drain = false;
+    private int minBatchSize = 10;
+    private int maxBatchSize = 1000;
+    private long targetBatchDuration = 2000;
+    private long idleDelay = 5000;
+
+    /**
+     * How long claimed documents stay reserved for this node; renewed while a batch runs.
+     */
+    private long leaseDuration = 300000;
+
+    /**
+     * Lease owner prefix identifying this instance; defaults to pid@host.
+     */
+    private String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    public long getSubmitTickDelay() {
+        return drain ? idleDelay : submitDelay;
+    }
+
+    public long getApproveTickDelay() {
+        return drain ? idleDelay : approveDelay;
+    }
 }
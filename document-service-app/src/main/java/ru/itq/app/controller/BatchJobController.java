@@ -0,0 +1,45 @@
+package ru.itq.app.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import ru.itq.api.dto.BatchJobRequest;
+import ru.itq.api.dto.BatchJobResponse;
+import ru.itq.api.dto.BatchOperationResult;
+import ru.itq.core.service.BatchJobService;
+
+/**
+ * Asynchronous submit/approve: POST returns the job at once, progress and results are polled.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+public class BatchJobController {
+
+    private final BatchJobService batchJobService;
+
+    @PostMapping
+    public ResponseEntity<BatchJobResponse> create(@Valid @RequestBody BatchJobRequest request) {
+        BatchJobResponse job = batchJobService.create(request.getOperation(), request.getIds(), request.getInitiator());
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public BatchJobResponse get(@PathVariable Long id) {
+        return batchJobService.get(id);
+    }
+
+    @GetMapping("/{id}/results")
+    public Page<BatchOperationResult> getResults(
+            @PathVariable Long id,
+            @PageableDefault(size = 100) Pageable pageable) {
+        return batchJobService.getResults(id, pageable);
+    }
+}
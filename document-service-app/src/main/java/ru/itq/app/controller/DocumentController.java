@@ -1,22 +1,43 @@
 package ru.itq.app.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.itq.api.dto.*;
+import ru.itq.app.admission.AdmissionControl;
+import ru.itq.app.idempotency.IdempotencyService;
+import ru.itq.app.stream.DocumentEventHub;
+import ru.itq.app.stream.DocumentStreamFilter;
+import ru.itq.core.config.ExportProperties;
 import ru.itq.core.service.DocumentService;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
@@ -24,13 +45,32 @@ import java.util.concurrent.atomic.AtomicInteger;
 @RequiredArgsConstructor
 public class DocumentController {
 
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final DocumentService documentService;
+    private final IdempotencyService idempotencyService;
+    private final DocumentEventHub documentEventHub;
+    private final AdmissionControl admissionControl;
+    private final ExportProperties exportProperties;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
-    public ResponseEntity<DocumentResponse> create(@Valid @RequestBody CreateDocumentRequest request) {
-        DocumentResponse response = documentService.create(
-                request.getAuthor(), request.getTitle(), request.getInitiator());
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<DocumentResponse> create(
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey,
+            @Valid @RequestBody CreateDocumentRequest request) {
+        return idempotent(idempotencyKey, "POST /api/documents", request, true, HttpStatus.CREATED,
+                new TypeReference<DocumentResponse>() {},
+                () -> documentService.create(request.getAuthor(), request.getTitle(), request.getInitiator()));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateDocumentResponse> createBatch(
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey,
+            @Valid @RequestBody BatchCreateDocumentRequest request) {
+        return admitted(request.getInitiator(), idempotencyKey, "POST /api/documents/batch", request, true,
+                HttpStatus.CREATED, new TypeReference<BatchCreateDocumentResponse>() {},
+                () -> documentService.createBatch(request.getDocuments(), request.getInitiator()));
     }
 
     @GetMapping("/{id}")
@@ -38,23 +78,61 @@ public class DocumentController {
         return ResponseEntity.ok(documentService.getById(id));
     }
 
+    /**
+     * Server-Sent Events for one document: a {@code snapshot} event with its current status, then a
+     * {@code transition} event for every status change committed on this instance.
+     */
+    @GetMapping("/{id}/events")
+    public SseEmitter streamDocument(@PathVariable Long id) {
+        return documentEventHub.subscribe(DocumentStreamFilter.document(id), () -> documentService.getStatusSnapshot(id));
+    }
+
+    /**
+     * Server-Sent Events for transitions to {@code status} of documents whose author contains
+     * {@code author}; both filters are optional.
+     */
+    @GetMapping("/events")
+    public SseEmitter streamTransitions(
+            @RequestParam(required = false) DocumentStatus status,
+            @RequestParam(required = false) String author) {
+        return documentEventHub.subscribe(new DocumentStreamFilter(null, status, author), null);
+    }
+
+    @GetMapping("/{id}/history")
+    public ResponseEntity<Page<DocumentHistoryResponse>> getHistory(
+            @PathVariable Long id,
+            @PageableDefault(size = 50, sort = {"createdAt", "id"}) Pageable pageable) {
+        return ResponseEntity.ok(documentService.getHistory(id, pageable));
+    }
+
+    /**
+     * {@code include=history} embeds each document's history, loaded for the whole page in one query.
+     */
     @GetMapping
     public ResponseEntity<Page<DocumentResponse>> getByIds(
             @RequestParam List<Long> ids,
+            @RequestParam(required = false) Set<String> include,
             @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(documentService.getByIds(ids, pageable));
+        boolean includeHistory = include != null && include.contains("history");
+        return ResponseEntity.ok(documentService.getByIds(ids, includeHistory, pageable));
     }
 
     @PostMapping("/submit")
-    public ResponseEntity<List<BatchOperationResult>> submit(@Valid @RequestBody BatchOperationRequest request) {
-        List<BatchOperationResult> results = documentService.submitBatch(request.getIds(), request.getInitiator());
-        return ResponseEntity.ok(results);
+    public ResponseEntity<List<BatchOperationResult>> submit(
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey,
+            @Valid @RequestBody BatchOperationRequest request) {
+        return admitted(request.getInitiator(), idempotencyKey, "POST /api/documents/submit", request, false,
+                HttpStatus.OK, new TypeReference<List<BatchOperationResult>>() {},
+                () -> documentService.submitBatch(request.getIds(), request.getInitiator()));
     }
 
     @PostMapping("/approve")
-    public ResponseEntity<List<BatchOperationResult>> approve(@Valid @RequestBody BatchOperationRequest request) {
-        List<BatchOperationResult> results = documentService.approveBatch(request.getIds(), request.getInitiator());
-        return ResponseEntity.ok(results);
+    public ResponseEntity<List<BatchOperationResult>> approve(
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) @Size(min = 1, max = 255) String idempotencyKey,
+            @Valid @RequestBody BatchOperationRequest request) {
+        return admitted(request.getInitiator(), idempotencyKey, "POST /api/documents/approve", request, false,
+                HttpStatus.OK, new TypeReference<List<BatchOperationResult>>() {},
+                () -> documentService.approveBatch(request.getIds(), request.getInitiator()));
     }
 
     @GetMapping("/search")
@@ -63,8 +141,67 @@ public class DocumentController {
             @RequestParam(required = false) String author,
             @RequestParam(required = false) LocalDateTime dateFrom,
             @RequestParam(required = false) LocalDateTime dateTo,
-            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        return ResponseEntity.ok(documentService.search(status, author, dateFrom, dateTo, pageable));
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            HttpServletRequest httpRequest) {
+        try (AdmissionControl.Permit permit = admissionControl.admitClient(httpRequest.getRemoteAddr())) {
+            return ResponseEntity.ok(documentService.search(status, author, dateFrom, dateTo, pageable));
+        }
+    }
+
+    @GetMapping("/search/cursor")
+    public ResponseEntity<DocumentCursorPage> searchByCursor(
+            @RequestParam(required = false) DocumentStatus status,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) LocalDateTime dateFrom,
+            @RequestParam(required = false) LocalDateTime dateTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(1000) int size,
+            HttpServletRequest httpRequest) {
+        try (AdmissionControl.Permit permit = admissionControl.admitClient(httpRequest.getRemoteAddr())) {
+            return ResponseEntity.ok(documentService.searchByCursor(status, author, dateFrom, dateTo, cursor, size));
+        }
+    }
+
+    /**
+     * Streams all documents matching the search filters, newest first. Rows go from a database
+     * cursor straight to the response, so the result size is not limited by memory.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) DocumentStatus status,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) LocalDateTime dateFrom,
+            @RequestParam(required = false) LocalDateTime dateTo,
+            @RequestParam(defaultValue = "NDJSON") DocumentExportFormat format,
+            HttpServletRequest httpRequest) {
+        ObjectWriter jsonWriter = objectMapper.writerFor(DocumentResponse.class);
+        // This response only; the default async timeout still bounds every other async request
+        WebAsyncUtils.getAsyncManager(httpRequest).getAsyncWebRequest().setTimeout(exportProperties.getTimeout());
+        // Held until the stream is written, not just until this method returns
+        AdmissionControl.Permit permit = admissionControl.admitClient(httpRequest.getRemoteAddr());
+        StreamingResponseBody body = out -> {
+            long start = System.currentTimeMillis();
+            try (permit; DocumentExportWriter writer = DocumentExportWriter.create(format, out, jsonWriter)) {
+                documentService.export(status, author, dateFrom, dateTo, writer::write);
+                log.info("Export completed: format={}, rows={}, elapsed={}ms",
+                        format, writer.getRows(), System.currentTimeMillis() - start);
+            } catch (UncheckedIOException e) {
+                // Client went away mid-stream; the cursor is already closed
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("documents." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<DocumentStatsResponse> stats() {
+        return ResponseEntity.ok(documentService.getStats());
     }
 
     @PostMapping("/concurrent-approve-test")
@@ -116,4 +253,44 @@ public class DocumentController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * With an {@code Idempotency-Key}, retries of the same request get the first response back
+     * instead of running {@code action} again.
+     *
+     * @param atomic see {@link IdempotencyService#execute}
+     */
+    private <T> ResponseEntity<T> idempotent(String idempotencyKey, String endpoint, Object request, boolean atomic,
+                                             HttpStatus status, TypeReference<T> responseType, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(status).body(action.get());
+        }
+        return respond(status,
+                idempotencyService.execute(idempotencyKey, endpoint, request, atomic, responseType, action));
+    }
+
+    /**
+     * {@link #idempotent} under an admission permit of {@code initiator}. A replay is answered before
+     * admission: it runs nothing, so it spends no token and no concurrency slot.
+     */
+    private <T> ResponseEntity<T> admitted(String initiator, String idempotencyKey, String endpoint, Object request,
+                                           boolean atomic, HttpStatus status, TypeReference<T> responseType,
+                                           Supplier<T> action) {
+        if (idempotencyKey != null) {
+            Optional<IdempotencyService.Result<T>> replay =
+                    idempotencyService.findReplay(idempotencyKey, endpoint, request, responseType);
+            if (replay.isPresent()) {
+                return respond(status, replay.get());
+            }
+        }
+        try (AdmissionControl.Permit permit = admissionControl.admit(initiator)) {
+            return idempotent(idempotencyKey, endpoint, request, atomic, status, responseType, action);
+        }
+    }
+
+    private static <T> ResponseEntity<T> respond(HttpStatus status, IdempotencyService.Result<T> result) {
+        return ResponseEntity.status(status)
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(result.replayed()))
+                .body(result.body());
+    }
 }
@@ -0,0 +1,138 @@
+package ru.itq.app.controller;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import ru.itq.api.dto.DocumentResponse;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Writes exported documents one row at a time. Output is flushed every {@code FLUSH_EVERY}
+ * rows so the client starts receiving data right away and nothing accumulates on our side.
+ * Write failures (typically the client going away) surface as {@link UncheckedIOException}
+ * to abort the database cursor.
+ */
+abstract class DocumentExportWriter implements AutoCloseable {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    protected final Writer out;
+    private long rows;
+
+    private DocumentExportWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    static DocumentExportWriter create(DocumentExportFormat format, OutputStream out, ObjectWriter jsonWriter)
+            throws IOException {
+        return switch (format) {
+            case NDJSON -> new Ndjson(out, jsonWriter);
+            case CSV -> new Csv(out);
+        };
+    }
+
+    void write(DocumentResponse document) {
+        try {
+            writeRow(document);
+            if (++rows % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    protected abstract void writeRow(DocumentResponse document) throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    private static final class Ndjson extends DocumentExportWriter {
+
+        private final ObjectWriter jsonWriter;
+
+        Ndjson(OutputStream out, ObjectWriter jsonWriter) {
+            super(out);
+            this.jsonWriter = jsonWriter;
+        }
+
+        @Override
+        protected void writeRow(DocumentResponse document) throws IOException {
+            out.write(jsonWriter.writeValueAsString(document));
+            out.write('\n');
+        }
+    }
+
+    private static final class Csv extends DocumentExportWriter {
+
+        Csv(OutputStream out) throws IOException {
+            super(out);
+            this.out.write("id,documentNumber,author,title,status,version,createdAt,updatedAt\r\n");
+            this.out.flush();
+        }
+
+        @Override
+        protected void writeRow(DocumentResponse d) throws IOException {
+            out.write(String.valueOf(d.getId()));
+            out.write(',');
+            writeField(d.getDocumentNumber());
+            out.write(',');
+            writeField(d.getAuthor());
+            out.write(',');
+            writeField(d.getTitle());
+            out.write(',');
+            out.write(d.getStatus().name());
+            out.write(',');
+            out.write(String.valueOf(d.getVersion()));
+            out.write(',');
+            writeDate(d.getCreatedAt());
+            out.write(',');
+            writeDate(d.getUpdatedAt());
+            out.write("\r\n");
+        }
+
+        /**
+         * RFC 4180: fields with a comma, quote or line break are quoted, quotes doubled.
+         */
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (!needsQuoting(value)) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        private static boolean needsQuoting(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void writeDate(LocalDateTime value) throws IOException {
+            if (value != null) {
+                out.write(value.toString());
+            }
+        }
+    }
+}
@@ -1,20 +1,35 @@
 package ru.itq.app.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 import ru.itq.api.dto.ApiError;
+import ru.itq.core.domain.exception.BatchJobNotFoundException;
 import ru.itq.core.domain.exception.DocumentNotFoundException;
+import ru.itq.core.domain.exception.IdempotencyKeyInProgressException;
+import ru.itq.core.domain.exception.IdempotencyKeyReusedException;
+import ru.itq.core.domain.exception.InvalidCursorException;
 import ru.itq.core.domain.exception.InvalidStatusTransitionException;
 import ru.itq.core.domain.exception.RegistryException;
+import ru.itq.core.domain.exception.TooManyRequestsException;
+import ru.itq.core.domain.exception.TooManySubscribersException;
 
 import java.util.stream.Collectors;
 
+/**
+ * Error bodies are always JSON, whatever the request accepts: an SSE client sends
+ * {@code Accept: text/event-stream} and would otherwise get an empty 500 instead of the error.
+ */
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -23,16 +38,29 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiError> handleNotFound(DocumentNotFoundException ex) {
         log.warn("Document not found: {}", ex.getMessage());
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(ApiError.builder()
                         .code("DOCUMENT_NOT_FOUND")
                         .message(ex.getMessage())
                         .build());
     }
 
+    @ExceptionHandler(BatchJobNotFoundException.class)
+    public ResponseEntity<ApiError> handleJobNotFound(BatchJobNotFoundException ex) {
+        log.warn("Batch job not found: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiError.builder()
+                        .code("JOB_NOT_FOUND")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
     @ExceptionHandler(InvalidStatusTransitionException.class)
     public ResponseEntity<ApiError> handleInvalidTransition(InvalidStatusTransitionException ex) {
         log.warn("Invalid status transition: {}", ex.getMessage());
         return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(ApiError.builder()
                         .code("INVALID_STATUS_TRANSITION")
                         .message(ex.getMessage())
@@ -43,16 +71,74 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiError> handleRegistryError(RegistryException ex) {
         log.error("Registry error: {}", ex.getMessage());
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(ApiError.builder()
                         .code("REGISTRY_ERROR")
                         .message(ex.getMessage())
                         .build());
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiError> handleInvalidCursor(InvalidCursorException ex) {
+        log.warn("Invalid cursor: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiError.builder()
+                        .code("INVALID_CURSOR")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ApiError> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException ex) {
+        log.warn("Idempotency key in progress: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiError.builder()
+                        .code("IDEMPOTENCY_KEY_IN_PROGRESS")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ApiError> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        log.warn("Idempotency key reused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiError.builder()
+                        .code("IDEMPOTENCY_KEY_REUSED")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(TooManySubscribersException.class)
+    public ResponseEntity<ApiError> handleTooManySubscribers(TooManySubscribersException ex) {
+        log.warn("Stream subscription rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiError.builder()
+                        .code("TOO_MANY_SUBSCRIBERS")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequests(TooManyRequestsException ex) {
+        log.debug("Request rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiError.builder()
+                        .code("TOO_MANY_REQUESTS")
+                        .message(ex.getMessage())
+                        .build());
+    }
+
     @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
     public ResponseEntity<ApiError> handleOptimisticLock(ObjectOptimisticLockingFailureException ex) {
         log.warn("Optimistic lock conflict: {}", ex.getMessage());
         return ResponseEntity.status(HttpStatus.CONFLICT)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(ApiError.builder()
                         .code("CONCURRENT_MODIFICATION")
                         .message("The document was modified by another request. Please retry.")
@@ -62,6 +148,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(NoResourceFoundException.class)
     public ResponseEntity<ApiError> handleNoResource(NoResourceFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(ApiError.builder()
                         .code("NOT_FOUND")
                         .message("Ресурс не найден. Это REST API: используйте /api/documents и др. См. GET / или GET /api.")
@@ -74,16 +161,43 @@ public class GlobalExceptionHandler {
                 .map(fe -> fe.getField() + ": " + fe.getDefaultMessage())
                 .collect(Collectors.joining("; "));
         return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(ApiError.builder()
                         .code("VALIDATION_ERROR")
                         .message(details)
                         .build());
     }
 
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ApiError> handleParameterValidation(HandlerMethodValidationException ex) {
+        String details = ex.getAllValidationResults().stream()
+                .map(r -> r.getMethodParameter().getParameterName() + ": " + r.getResolvableErrors().stream()
+                        .map(MessageSourceResolvable::getDefaultMessage)
+                        .collect(Collectors.joining(", ")))
+                .collect(Collectors.joining("; "));
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiError.builder()
+                        .code("VALIDATION_ERROR")
+                        .message(details)
+                        .build());
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiError> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ApiError.builder()
+                        .code("VALIDATION_ERROR")
+                        .message(ex.getName() + ": invalid value '" + ex.getValue() + "'")
+                        .build());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGeneral(Exception ex) {
         log.error("Unexpected error: {}", ex.getMessage(), ex);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(ApiError.builder()
                         .code("INTERNAL_ERROR")
                         .message("An unexpected error occurred")
@@ -20,14 +20,23 @@ public class WelcomeController {
                 "service", "Document Service (ITQ Group)",
                 "description", "REST API для работы с документами: создание, смена статусов, история, реестр утверждений.",
                 "apiBase", "/api/documents",
-                "endpoints", Map.of(
-                        "POST /api/documents", "Создать документ (DRAFT)",
-                        "GET /api/documents/{id}", "Получить документ с историей",
-                        "GET /api/documents?ids=...", "Пакетное получение по ID",
-                        "POST /api/documents/submit", "Отправить на согласование (DRAFT → SUBMITTED)",
-                        "POST /api/documents/approve", "Утвердить (SUBMITTED → APPROVED)",
-                        "GET /api/documents/search", "Поиск по статусу, автору, периоду",
-                        "POST /api/documents/concurrent-approve-test", "Тест конкурентного утверждения"
+                "endpoints", Map.ofEntries(
+                        Map.entry("POST /api/documents", "Создать документ (DRAFT)"),
+                        Map.entry("POST /api/documents/batch", "Создать пакет документов (до 10000)"),
+                        Map.entry("GET /api/documents/{id}", "Получить документ с историей"),
+                        Map.entry("GET /api/documents?ids=...", "Пакетное получение по ID"),
+                        Map.entry("GET /api/documents/{id}/events", "SSE: статус документа и его переходы"),
+                        Map.entry("GET /api/documents/events", "SSE: переходы по статусу и автору"),
+                        Map.entry("POST /api/documents/submit", "Отправить на согласование (DRAFT → SUBMITTED)"),
+                        Map.entry("POST /api/documents/approve", "Утвердить (SUBMITTED → APPROVED)"),
+                        Map.entry("GET /api/documents/search", "Поиск по статусу, автору, периоду"),
+                        Map.entry("GET /api/documents/search/cursor", "Поиск с курсорной пагинацией (без COUNT)"),
+                        Map.entry("GET /api/documents/export", "Потоковая выгрузка результатов поиска (NDJSON/CSV)"),
+                        Map.entry("GET /api/documents/stats", "Количество документов по статусам"),
+                        Map.entry("POST /api/jobs", "Асинхронное задание SUBMIT/APPROVE (до 200000 ID)"),
+                        Map.entry("GET /api/jobs/{id}", "Прогресс задания"),
+                        Map.entry("GET /api/jobs/{id}/results", "Результаты задания по страницам"),
+                        Map.entry("POST /api/documents/concurrent-approve-test", "Тест конкурентного утверждения")
                 )
         ));
     }
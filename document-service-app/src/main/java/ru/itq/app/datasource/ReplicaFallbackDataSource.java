@@ -0,0 +1,48 @@
+package ru.itq.app.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Connections for read-only transactions: from the replica while {@link ReplicaLagMonitor} reports
+ * it usable, otherwise, or when the replica refuses a connection, from the primary.
+ */
+@Slf4j
+class ReplicaFallbackDataSource extends DelegatingDataSource {
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter replicaConnections;
+    private final Counter primaryConnections;
+
+    ReplicaFallbackDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor lagMonitor,
+                              MeterRegistry meterRegistry) {
+        super(replica);
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+        this.replicaConnections = meterRegistry.counter("datasource.readonly.connections", "target", "replica");
+        this.primaryConnections = meterRegistry.counter("datasource.readonly.connections", "target", "primary");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (lagMonitor.isReplicaUsable()) {
+            try {
+                Connection connection = super.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                log.warn("Replica connection failed, reading from primary: {}", e.getMessage());
+                lagMonitor.markUnavailable();
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+}
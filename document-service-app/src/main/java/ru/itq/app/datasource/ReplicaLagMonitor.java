@@ -0,0 +1,99 @@
+package ru.itq.app.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the replica's replay lag. The replica is usable while the lag is within {@code maxLag};
+ * until the first successful check and after a failed one it is not. A check result is trusted for
+ * {@value #STALE_AFTER_CHECKS} check intervals: if no check has succeeded since (the scheduler is
+ * busy, or the check hangs), the replica is not used until the next one succeeds.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    /**
+     * Zero when everything received has been replayed: an idle primary sends no new transactions,
+     * so the age of the last replayed one alone would look like growing lag.
+     */
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT)
+            END
+            """;
+
+    static final int STALE_AFTER_CHECKS = 5;
+
+    private final JdbcTemplate replica;
+    private final ReplicaProperties properties;
+    private volatile long lag = -1;
+    private volatile boolean usable;
+    private volatile long checkedAt;
+
+    public ReplicaLagMonitor(DataSource replica, ReplicaProperties properties, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.properties = properties;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lag < 0 ? Double.NaN : monitor.lag / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "#{@replicaProperties.lagCheckDelay}")
+    public void check() {
+        try {
+            Long current = replica.queryForObject(LAG_SQL, Long.class);
+            lag = current == null ? 0 : current;
+            checkedAt = System.nanoTime();
+            setUsable(lag <= properties.getMaxLag(), "lag " + lag + "ms, max " + properties.getMaxLag() + "ms");
+        } catch (Exception e) {
+            lag = -1;
+            setUsable(false, e.getMessage());
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        if (usable && millisSinceCheck() > STALE_AFTER_CHECKS * properties.getLagCheckDelay()) {
+            expire();
+        }
+        return usable;
+    }
+
+    /**
+     * Called when a replica connection fails; the next successful check makes the replica usable again.
+     */
+    public void markUnavailable() {
+        lag = -1;
+        setUsable(false, "connection failed");
+    }
+
+    private synchronized void expire() {
+        long sinceCheck = millisSinceCheck();
+        // re-read under the lock: a check may have just succeeded
+        if (sinceCheck > STALE_AFTER_CHECKS * properties.getLagCheckDelay()) {
+            setUsable(false, "no lag check for " + sinceCheck + "ms");
+        }
+    }
+
+    private long millisSinceCheck() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - checkedAt);
+    }
+
+    private synchronized void setUsable(boolean value, String reason) {
+        if (usable != value) {
+            usable = value;
+            if (value) {
+                log.info("Read replica in use: {}", reason);
+            } else {
+                log.warn("Read replica not used, reading from primary: {}", reason);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.itq.app.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read replica for read-only transactions. Pool settings go under {@code app.datasource.replica.hikari}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+
+    /**
+     * Replication lag above which read-only transactions go to the primary, ms.
+     */
+    private long maxLag = 5000;
+
+    /**
+     * Delay between replica lag checks, ms.
+     */
+    private long lagCheckDelay = 1000;
+}
@@ -0,0 +1,36 @@
+package ru.itq.app.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * How long a stored response is replayed for its key, ms.
+     */
+    private long ttl = 86400000;
+
+    /**
+     * Responses kept in memory in front of the table.
+     */
+    private int cacheSize = 10000;
+
+    /**
+     * A key whose first request has not completed within this time may be reused, ms.
+     */
+    private long lockTimeout = 120000;
+
+    /**
+     * Delay between purges of expired keys, ms. The first purge happens at startup.
+     */
+    private long cleanupDelay = 3600000;
+
+    /**
+     * Keys deleted per statement by the purge.
+     */
+    private int cleanupBatchSize = 1000;
+}
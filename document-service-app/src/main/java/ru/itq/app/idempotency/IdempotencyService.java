@@ -0,0 +1,228 @@
+package ru.itq.app.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itq.core.domain.entity.IdempotencyRecord;
+import ru.itq.core.domain.exception.IdempotencyKeyInProgressException;
+import ru.itq.core.domain.exception.IdempotencyKeyReusedException;
+import ru.itq.core.persistence.IdempotencyRecordRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key} and replays its stored JSON response to
+ * retries. Responses are kept in {@code idempotency_record} for {@code app.idempotency.ttl}, with a
+ * bounded in-memory cache in front, so a replay does not touch the document tables. A key sent with
+ * a different request is rejected; a key whose first request is still running gets 409. Failed
+ * requests are not stored, so they can be retried with the same key.
+ * <p>
+ * An atomic action (document creation) runs in the transaction that stores its response, so a
+ * crash leaves neither. Batch transitions commit per document, so their response is stored
+ * afterwards: if the node dies in between, a retry after {@code lock-timeout} runs the batch again,
+ * and documents it already moved come back as {@code conflict} instead of their first result.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository repository;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate writeTx;
+    private final Cache<String, StoredResponse> cache;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              IdempotencyProperties properties,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        // Cached responses expire together with their record
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .expireAfter(new Expiry<String, StoredResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, StoredResponse stored, long currentTime) {
+                        return Math.max(0, Duration.between(LocalDateTime.now(), stored.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, StoredResponse stored, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, stored, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, StoredResponse stored, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * The stored response of {@code key}, if its request has completed. Lets a caller answer a replay
+     * before spending anything on the request, e.g. admission.
+     *
+     * @throws IdempotencyKeyReusedException if the key was used with another request
+     */
+    public <T> Optional<Result<T>> findReplay(String key, String endpoint, Object request,
+                                              TypeReference<T> responseType) {
+        StoredResponse stored = cache.getIfPresent(key);
+        if (stored == null) {
+            LocalDateTime now = LocalDateTime.now();
+            stored = writeTx.execute(status -> repository.findById(key)
+                    .filter(record -> record.getResponseBody() != null && !record.getExpiresAt().isBefore(now))
+                    .map(record -> new StoredResponse(record.getEndpoint(), record.getRequestHash(),
+                            record.getResponseBody(), record.getExpiresAt()))
+                    .orElse(null));
+            if (stored == null) {
+                return Optional.empty();
+            }
+            cache.put(key, stored);
+        }
+        return Optional.of(replay(key, endpoint, hash(endpoint, request), stored, responseType));
+    }
+
+    /**
+     * @param endpoint identifies the operation; the same key may not be used for two endpoints
+     * @param request  request body, part of the fingerprint a retry must match
+     * @param atomic   {@code action} joins the transaction that stores its response; only for actions
+     *                 that do all their writes in one transaction
+     */
+    public <T> Result<T> execute(String key, String endpoint, Object request, boolean atomic,
+                                 TypeReference<T> responseType, Supplier<T> action) {
+        String requestHash = hash(endpoint, request);
+        StoredResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return replay(key, endpoint, requestHash, cached, responseType);
+        }
+
+        // Millisecond precision survives the round trip, so the reservation can be matched by created_at
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(properties.getTtl()));
+        LocalDateTime staleBefore = now.minus(Duration.ofMillis(properties.getLockTimeout()));
+        boolean reserved = Boolean.TRUE.equals(writeTx.execute(status ->
+                repository.insertIfMissing(key, endpoint, requestHash, now, expiresAt) > 0
+                        || repository.takeOver(key, endpoint, requestHash, now, expiresAt, staleBefore) > 0));
+        if (!reserved) {
+            IdempotencyRecord record = writeTx.execute(status -> repository.findById(key).orElse(null));
+            if (record == null || record.getResponseBody() == null) {
+                throw new IdempotencyKeyInProgressException(key);
+            }
+            StoredResponse stored = new StoredResponse(record.getEndpoint(), record.getRequestHash(),
+                    record.getResponseBody(), record.getExpiresAt());
+            cache.put(key, stored);
+            return replay(key, endpoint, requestHash, stored, responseType);
+        }
+
+        T response;
+        String body;
+        try {
+            if (atomic) {
+                Completed<T> completed = writeTx.execute(status -> completeAtomically(key, now, action.get()));
+                response = completed.response();
+                body = completed.body();
+            } else {
+                response = action.get();
+                body = toJson(response);
+            }
+        } catch (RuntimeException e) {
+            writeTx.executeWithoutResult(status -> repository.deleteReservation(key, now));
+            throw e;
+        }
+        if (!atomic) {
+            writeTx.executeWithoutResult(status -> repository.complete(key, now, body));
+        }
+        cache.put(key, new StoredResponse(endpoint, requestHash, body, expiresAt));
+        return new Result<>(response, false);
+    }
+
+    /**
+     * Deletes expired records in batches of {@code cleanup-batch-size}.
+     *
+     * @return records deleted
+     */
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = writeTx.execute(status -> repository.deleteExpired(now, properties.getCleanupBatchSize()));
+            total += deleted;
+        } while (deleted == properties.getCleanupBatchSize());
+        return total;
+    }
+
+    private <T> Completed<T> completeAtomically(String key, LocalDateTime reservedAt, T response) {
+        String body = toJson(response);
+        if (repository.complete(key, reservedAt, body) == 0) {
+            // Ran past lock-timeout and the key was taken over: roll the action back, the new owner runs it
+            throw new IdempotencyKeyInProgressException(key);
+        }
+        return new Completed<>(response, body);
+    }
+
+    private <T> Result<T> replay(String key, String endpoint, String requestHash, StoredResponse stored,
+                                 TypeReference<T> responseType) {
+        if (!stored.endpoint().equals(endpoint) || !stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        log.debug("Replaying stored response for Idempotency-Key {} on {}", key, endpoint);
+        try {
+            return new Result<>(objectMapper.readValue(stored.body(), responseType), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response is not readable for Idempotency-Key " + key, e);
+        }
+    }
+
+    private String hash(String endpoint, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response", e);
+        }
+    }
+
+    /**
+     * @param replayed true if {@code body} is the stored response of an earlier request
+     */
+    public record Result<T>(T body, boolean replayed) {
+    }
+
+    private record Completed<T>(T response, String body) {
+    }
+
+    private record StoredResponse(String endpoint, String requestHash, String body, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,55 @@
+package ru.itq.app.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.itq.api.dto.DocumentStatusEvent;
+import ru.itq.core.service.OutboxSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to a local NDJSON file, one JSON object per line. A batch is written and
+ * forced to disk before the relay marks it delivered.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.sink", name = "type", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path path;
+    private final ObjectWriter writer;
+
+    public FileOutboxSink(OutboxSinkProperties properties, ObjectMapper objectMapper) throws IOException {
+        this.path = Path.of(properties.getFile().getPath()).toAbsolutePath();
+        this.writer = objectMapper.writerFor(DocumentStatusEvent.class);
+        Files.createDirectories(path.getParent());
+        log.info("Outbox events are appended to {}", path);
+    }
+
+    @Override
+    public synchronized void publish(List<DocumentStatusEvent> events) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (DocumentStatusEvent event : events) {
+            writer.writeValue(lines, event);
+            lines.write('\n');
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
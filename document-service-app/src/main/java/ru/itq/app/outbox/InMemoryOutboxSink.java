@@ -0,0 +1,42 @@
+package ru.itq.app.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.itq.api.dto.DocumentStatusEvent;
+import ru.itq.core.service.OutboxSink;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent events in memory; for development and tests.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.sink", name = "type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<DocumentStatusEvent> events = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(OutboxSinkProperties properties) {
+        this.capacity = properties.getMemory().getCapacity();
+    }
+
+    @Override
+    public synchronized void publish(List<DocumentStatusEvent> batch) {
+        for (DocumentStatusEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    /**
+     * Events in the order they were published, oldest first.
+     */
+    public synchronized List<DocumentStatusEvent> getEvents() {
+        return List.copyOf(events);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.itq.app.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.outbox.sink")
+public class OutboxSinkProperties {
+
+    /**
+     * memory | file | webhook
+     */
+    private String type = "memory";
+
+    private Memory memory = new Memory();
+    private File file = new File();
+    private Webhook webhook = new Webhook();
+
+    @Data
+    public static class Memory {
+        /**
+         * Most recent events kept.
+         */
+        private int capacity = 1000;
+    }
+
+    @Data
+    public static class File {
+        /**
+         * NDJSON log the events are appended to.
+         */
+        private String path = "outbox/document-events.ndjson";
+    }
+
+    @Data
+    public static class Webhook {
+        /**
+         * Receives each batch as a JSON array in a POST; any status other than 2xx fails the batch.
+         */
+        private String url;
+
+        /**
+         * Connect and response timeout, ms.
+         */
+        private long timeout = 5000;
+    }
+}
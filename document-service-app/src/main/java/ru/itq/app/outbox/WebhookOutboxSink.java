@@ -0,0 +1,53 @@
+package ru.itq.app.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.itq.api.dto.DocumentStatusEvent;
+import ru.itq.core.service.OutboxSink;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * POSTs each batch as a JSON array to {@code app.outbox.sink.webhook.url}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.sink", name = "type", havingValue = "webhook")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final URI uri;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    public WebhookOutboxSink(OutboxSinkProperties properties, ObjectMapper objectMapper) {
+        OutboxSinkProperties.Webhook webhook = properties.getWebhook();
+        this.uri = URI.create(Objects.requireNonNull(webhook.getUrl(), "app.outbox.sink.webhook.url is not set"));
+        this.timeout = Duration.ofMillis(webhook.getTimeout());
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        log.info("Outbox events are posted to {}", uri);
+    }
+
+    @Override
+    public void publish(List<DocumentStatusEvent> events) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Webhook " + uri + " returned HTTP " + response.statusCode());
+        }
+    }
+}
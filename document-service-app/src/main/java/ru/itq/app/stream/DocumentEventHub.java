@@ -0,0 +1,305 @@
+package ru.itq.app.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.itq.api.dto.DocumentStreamEvent;
+import ru.itq.core.domain.event.DocumentTransitionEvent;
+import ru.itq.core.domain.exception.TooManySubscribersException;
+import ru.itq.core.service.DocumentService;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * In-process fan-out of committed status transitions to SSE subscribers. The commit listener
+ * only queues the transition; one dispatcher thread matches it against subscriber filters (looking
+ * up authors once per drained batch, and only if some filter needs them) and renders each matched
+ * event once. Every subscriber has a bounded buffer of those shared events; a buffer that gets
+ * events is drained by one of {@code sender-threads} shared sender threads with one write per
+ * batch, so an idle stream holds no thread and a slow client holds up at most one sender. A
+ * subscriber whose buffer fills up is disconnected and has to resubscribe.
+ * <p>
+ * Only transitions committed by this instance are streamed.
+ */
+@Slf4j
+@Component
+public class DocumentEventHub {
+
+    static final String SNAPSHOT = "snapshot";
+    static final String TRANSITION = "transition";
+
+    private static final int DISPATCH_BATCH = 1000;
+    private static final int AUTHOR_LOOKUP_CHUNK = 1000;
+    private static final int SEND_BATCH = 500;
+    private static final String HEARTBEAT = ":heartbeat\n\n";
+    private static final MediaType TEXT_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+    private final DocumentService documentService;
+    private final DocumentStreamProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final BlockingQueue<Transition> pending;
+    private final Thread dispatcher;
+    private final ExecutorService senders;
+    private final Counter dropped;
+    private final Counter overflowed;
+
+    public DocumentEventHub(DocumentService documentService, DocumentStreamProperties properties,
+                            ObjectMapper objectMapper, MeterRegistry registry) {
+        this.documentService = documentService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.pending = new ArrayBlockingQueue<>(properties.getDispatchQueueSize());
+        Gauge.builder("document.stream.subscribers", subscribers, Set::size)
+                .description("Open document event streams")
+                .register(registry);
+        this.dropped = Counter.builder("document.stream.dropped")
+                .description("Committed transitions not streamed because the dispatch queue was full")
+                .register(registry);
+        this.overflowed = Counter.builder("document.stream.overflowed")
+                .description("Subscribers disconnected for not reading their events")
+                .register(registry);
+        // Not virtual: SseEmitter.send is synchronized, so a sender blocked on a stuck client would pin
+        // a carrier thread and stall every other virtual thread, batch processing included
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(),
+                Thread.ofPlatform().name("document-stream-sender-", 0).daemon().factory());
+        this.dispatcher = Thread.ofPlatform().name("document-stream-dispatcher").daemon()
+                .start(this::dispatchLoop);
+    }
+
+    /**
+     * Opens a stream of transitions matching {@code filter}. A non-null {@code snapshot} is read
+     * after the subscription is registered and sent first, so no transition falls between the two;
+     * if it throws, the subscription is dropped and the exception propagates.
+     */
+    public SseEmitter subscribe(DocumentStreamFilter filter, Supplier<DocumentStreamEvent> snapshot) {
+        // Reserved before the subscriber is registered, so concurrent subscribes cannot overshoot the limit
+        if (reserved.incrementAndGet() > properties.getMaxSubscribers()) {
+            reserved.decrementAndGet();
+            throw new TooManySubscribersException(properties.getMaxSubscribers());
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeout());
+        Subscriber subscriber = new Subscriber(filter, emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscriber.close());
+        try {
+            if (snapshot != null) {
+                subscriber.offer(render(SNAPSHOT, snapshot.get()));
+            }
+        } catch (RuntimeException e) {
+            subscriber.disconnect();
+            throw e;
+        }
+        log.debug("Document stream opened: {}, subscribers={}", filter, subscribers.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransition(DocumentTransitionEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (!pending.offer(new Transition(event, LocalDateTime.now()))) {
+            dropped.increment(event.documentIds().size());
+            log.warn("Document stream dispatch queue full, {} transitions not streamed", event.documentIds().size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@documentStreamProperties.heartbeatInterval}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.interrupt();
+        subscribers.forEach(Subscriber::disconnect);
+        senders.shutdown();
+    }
+
+    private void dispatchLoop() {
+        List<Transition> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(pending.take());
+                pending.drainTo(batch, DISPATCH_BATCH - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.error("Failed to stream {} document transitions: {}", batch.size(), e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<Transition> batch) {
+        Map<Long, String> authors = subscribers.stream().anyMatch(s -> s.filter.needsAuthor())
+                ? loadAuthors(batch)
+                : Map.of();
+        for (Transition transition : batch) {
+            DocumentTransitionEvent event = transition.event();
+            for (Long id : event.documentIds()) {
+                String author = authors.get(id);
+                String rendered = null;
+                for (Subscriber subscriber : subscribers) {
+                    if (subscriber.filter.matches(id, event.status(), author)) {
+                        if (rendered == null) {
+                            rendered = render(TRANSITION, DocumentStreamEvent.builder()
+                                    .documentId(id)
+                                    .status(event.status())
+                                    .performedBy(event.performedBy())
+                                    .occurredAt(transition.committedAt())
+                                    .build());
+                        }
+                        subscriber.offer(rendered);
+                    }
+                }
+            }
+        }
+    }
+
+    private Map<Long, String> loadAuthors(List<Transition> batch) {
+        Set<Long> ids = new LinkedHashSet<>();
+        batch.forEach(transition -> ids.addAll(transition.event().documentIds()));
+        List<Long> all = new ArrayList<>(ids);
+        Map<Long, String> authors = new HashMap<>(all.size() * 2);
+        for (int from = 0; from < all.size(); from += AUTHOR_LOOKUP_CHUNK) {
+            authors.putAll(documentService.getAuthors(all.subList(from, Math.min(from + AUTHOR_LOOKUP_CHUNK, all.size()))));
+        }
+        return authors;
+    }
+
+    private String render(String name, DocumentStreamEvent payload) {
+        try {
+            return "event:" + name + "\ndata:" + objectMapper.writeValueAsString(payload) + "\n\n";
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Transition(DocumentTransitionEvent event, LocalDateTime committedAt) {
+    }
+
+    private final class Subscriber {
+
+        private final DocumentStreamFilter filter;
+        private final SseEmitter emitter;
+        private final BlockingQueue<String> buffer;
+        // Set while a drain is queued or running; at most one drain per subscriber at a time
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Subscriber(DocumentStreamFilter filter, SseEmitter emitter) {
+            this.filter = filter;
+            this.emitter = emitter;
+            this.buffer = new LinkedBlockingQueue<>(properties.getBufferSize());
+        }
+
+        void offer(String event) {
+            if (!buffer.offer(event)) {
+                if (subscribers.contains(this)) {
+                    overflowed.increment();
+                    log.warn("Disconnecting document stream {}: {} events not read", filter, buffer.size());
+                    disconnect();
+                }
+                return;
+            }
+            schedule();
+        }
+
+        /**
+         * Unregisters the subscriber once the emitter is done; events still buffered are dropped.
+         */
+        void close() {
+            if (subscribers.remove(this)) {
+                reserved.decrementAndGet();
+                buffer.clear();
+            }
+        }
+
+        /**
+         * Closes the subscriber from the hub's side; a sender ends the response. Not completed here:
+         * the emitter is locked while a sender writes to a stuck client, and the caller must not wait.
+         */
+        void disconnect() {
+            close();
+            // A drain already queued or running sees the subscriber gone and completes the emitter
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // hub shut down
+                }
+            }
+        }
+
+        /**
+         * Writes one batch; a subscriber with more pending goes to the back of the sender queue, so
+         * a busy stream does not hold a sender while others wait.
+         */
+        private void drain() {
+            if (!subscribers.contains(this)) {
+                emitter.complete();
+                return;
+            }
+            List<String> batch = new ArrayList<>(SEND_BATCH);
+            buffer.drainTo(batch, SEND_BATCH);
+            try {
+                if (!batch.isEmpty()) {
+                    // Pre-rendered events as one chunk: the emitter flushes after every chunk it writes
+                    emitter.send(Set.of(new ResponseBodyEmitter.DataWithMediaType(String.join("", batch), TEXT_UTF8)));
+                }
+            } catch (Exception e) {
+                log.debug("Document stream {} disconnected: {}", filter, e.getMessage());
+                close();
+            }
+            if (!subscribers.contains(this)) {
+                // Failed, or disconnected by the hub while this batch was written
+                emitter.complete();
+                return;
+            }
+            scheduled.set(false);
+            // An offer or disconnect made while this drain ran saw it scheduled and left the work to it
+            if (!buffer.isEmpty() || !subscribers.contains(this)) {
+                schedule();
+            }
+        }
+    }
+}
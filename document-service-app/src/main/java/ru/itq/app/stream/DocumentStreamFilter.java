@@ -0,0 +1,30 @@
+package ru.itq.app.stream;
+
+import ru.itq.api.dto.DocumentStatus;
+
+import java.util.Locale;
+
+/**
+ * Transitions a subscriber is sent; null fields match anything. {@code author} matches
+ * like the search filter: a case-insensitive substring.
+ */
+public record DocumentStreamFilter(Long documentId, DocumentStatus status, String author) {
+
+    public DocumentStreamFilter {
+        author = author == null || author.isBlank() ? null : author.toLowerCase(Locale.ROOT);
+    }
+
+    public static DocumentStreamFilter document(Long documentId) {
+        return new DocumentStreamFilter(documentId, null, null);
+    }
+
+    boolean needsAuthor() {
+        return author != null;
+    }
+
+    boolean matches(Long id, DocumentStatus newStatus, String documentAuthor) {
+        return (documentId == null || documentId.equals(id))
+                && (status == null || status == newStatus)
+                && (author == null || documentAuthor != null && documentAuthor.toLowerCase(Locale.ROOT).contains(author));
+    }
+}
@@ -0,0 +1,43 @@
+package ru.itq.app.stream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stream")
+public class DocumentStreamProperties {
+
+    /**
+     * Open event streams per instance; further subscriptions get 503.
+     */
+    private int maxSubscribers = 1000;
+
+    /**
+     * Events buffered for one subscriber; a subscriber that falls this far behind is disconnected.
+     * Keep it well above the 1000 documents one batch request can move at once.
+     */
+    private int bufferSize = 5000;
+
+    /**
+     * Committed transitions waiting for fan-out; transitions beyond it are not streamed.
+     */
+    private int dispatchQueueSize = 10000;
+
+    /**
+     * Threads writing buffered events to subscribers. A client that stops reading blocks one of them
+     * until its write fails, so keep it above the number of stuck clients you expect at once.
+     */
+    private int senderThreads = 4;
+
+    /**
+     * Delay between heartbeat comments that keep idle streams open through proxies, ms.
+     */
+    private long heartbeatInterval = 15000;
+
+    /**
+     * Lifetime of one stream, ms; clients reconnect after it. 0 = no limit.
+     */
+    private long timeout = 1800000;
+}
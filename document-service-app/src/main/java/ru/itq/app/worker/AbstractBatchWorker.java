@@ -0,0 +1,135 @@
+package ru.itq.app.worker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import ru.itq.api.dto.BatchOperationResult;
+import ru.itq.api.dto.DocumentStatus;
+import ru.itq.app.config.WorkerProperties;
+import ru.itq.core.service.DocumentService;
+import ru.itq.core.service.LeaseRenewer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Common claim/process loop of the status workers. Without drain mode every tick
+ * processes one batch of {@code batch-size}; in drain mode a tick keeps processing
+ * adaptively sized batches until the queue runs short or a batch moves no document
+ * (every claimed document failed and would only be claimed again).
+ * <p>
+ * Documents are claimed with a lease owned by {@code nodeId/worker-name}, so several
+ * instances split the backlog without overlap. The lease is renewed while the batch
+ * runs and released afterwards; a crashed node's leases simply expire.
+ * <p>
+ * Claim queries are timed as {@code worker.claim}, tagged by worker.
+ */
+@Slf4j
+public abstract class AbstractBatchWorker {
+
+    protected final DocumentService documentService;
+    protected final WorkerProperties workerProperties;
+    private final LeaseRenewer leaseRenewer;
+    private final String name;
+    private final DocumentStatus sourceStatus;
+    private final Timer claimTimer;
+    private AdaptiveBatchSizer batchSizer;
+
+    protected AbstractBatchWorker(String name, DocumentStatus sourceStatus,
+                                  DocumentService documentService, WorkerProperties workerProperties,
+                                  LeaseRenewer leaseRenewer, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.sourceStatus = sourceStatus;
+        this.documentService = documentService;
+        this.workerProperties = workerProperties;
+        this.leaseRenewer = leaseRenewer;
+        this.claimTimer = Timer.builder("worker.claim")
+                .description("Claiming a batch of documents under a lease")
+                .tag("worker", name)
+                .register(meterRegistry);
+    }
+
+    protected abstract List<BatchOperationResult> process(List<Long> ids, String initiator);
+
+    protected void runTick() {
+        if (!workerProperties.isDrain()) {
+            processBatch(workerProperties.getBatchSize());
+            return;
+        }
+
+        AdaptiveBatchSizer sizer = batchSizer();
+        while (!Thread.currentThread().isInterrupted()) {
+            int requested = sizer.currentSize();
+            BatchOutcome outcome = processBatch(requested);
+            if (outcome.claimed() < requested || outcome.succeeded() == 0) {
+                break;
+            }
+        }
+    }
+
+    private BatchOutcome processBatch(int batchSize) {
+        long start = System.currentTimeMillis();
+
+        String owner = leaseOwner();
+        Duration leaseDuration = Duration.ofMillis(workerProperties.getLeaseDuration());
+        List<Long> ids = claimTimer.record(() ->
+                documentService.claimBatch(sourceStatus, batchSize, owner, leaseDuration));
+
+        if (ids.isEmpty()) {
+            return new BatchOutcome(0, 0);
+        }
+
+        long remaining = documentService.countByStatus(sourceStatus) - ids.size();
+        log.info("{}: processing batch of {} documents, ~{} {} remaining",
+                name, ids.size(), Math.max(0, remaining), sourceStatus);
+
+        ScheduledFuture<?> renewal = leaseRenewer.renewEvery(leaseDuration,
+                () -> renewLease(ids, owner, leaseDuration));
+        List<BatchOperationResult> results;
+        try {
+            results = process(ids, name);
+        } finally {
+            renewal.cancel(false);
+            documentService.releaseLease(ids, owner);
+        }
+
+        long successCount = results.stream().filter(r -> "success".equals(r.getResult())).count();
+        long conflictCount = results.stream().filter(r -> "conflict".equals(r.getResult())).count();
+        long elapsed = System.currentTimeMillis() - start;
+
+        if (workerProperties.isDrain()) {
+            batchSizer().record(batchSize, ids.size(), ids.size() - successCount, elapsed);
+            log.info("{}: batch completed — processed={}, success={}, conflict={}, elapsed={}ms, nextBatchSize={}",
+                    name, ids.size(), successCount, conflictCount, elapsed, batchSizer().currentSize());
+        } else {
+            log.info("{}: batch completed — processed={}, success={}, elapsed={}ms",
+                    name, ids.size(), successCount, elapsed);
+        }
+        return new BatchOutcome(ids.size(), successCount);
+    }
+
+    private void renewLease(List<Long> ids, String owner, Duration leaseDuration) {
+        try {
+            documentService.renewLease(ids, owner, leaseDuration);
+        } catch (Exception e) {
+            log.warn("{}: failed to renew lease on {} documents: {}", name, ids.size(), e.getMessage());
+        }
+    }
+
+    private String leaseOwner() {
+        return workerProperties.getNodeId() + "/" + name;
+    }
+
+    private AdaptiveBatchSizer batchSizer() {
+        if (batchSizer == null) {
+            batchSizer = new AdaptiveBatchSizer(workerProperties.getMinBatchSize(),
+                    workerProperties.getMaxBatchSize(), workerProperties.getBatchSize(),
+                    workerProperties.getTargetBatchDuration());
+        }
+        return batchSizer;
+    }
+
+    private record BatchOutcome(int claimed, long succeeded) {
+    }
+}
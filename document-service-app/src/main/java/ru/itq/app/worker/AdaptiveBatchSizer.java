@@ -0,0 +1,53 @@
+package ru.itq.app.worker;
+
+/**
+ * Picks the next drain batch size from the previous batch: scales towards the target
+ * batch duration (growing at most 2x per step, and only after a full batch) and halves
+ * the size when too many documents of the batch failed: conflicts show workers competing
+ * for the same rows, other failures (e.g. registry errors) stay in the queue and are
+ * claimed again.
+ */
+public class AdaptiveBatchSizer {
+
+    static final double MAX_FAILURE_RATE = 0.1;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetDurationMs;
+    private int currentSize;
+
+    public AdaptiveBatchSizer(int minSize, int maxSize, int initialSize, long targetDurationMs) {
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.targetDurationMs = Math.max(1, targetDurationMs);
+        this.currentSize = clamp(initialSize);
+    }
+
+    public int currentSize() {
+        return currentSize;
+    }
+
+    /**
+     * @param failures documents of the batch that did not move: conflicts and all other errors
+     */
+    public void record(int requested, int processed, long failures, long elapsedMs) {
+        if (processed == 0) {
+            return;
+        }
+        double failureRate = (double) failures / processed;
+        if (failureRate > MAX_FAILURE_RATE) {
+            currentSize = clamp(currentSize / 2);
+            return;
+        }
+        double factor = Math.min(2.0, (double) targetDurationMs / Math.max(1, elapsedMs));
+        if (factor > 1.0 && processed < requested) {
+            // Partial batch: the queue ran short, its timing says nothing about a bigger batch
+            return;
+        }
+        currentSize = clamp((int) Math.round(currentSize * factor));
+    }
+
+    private int clamp(int size) {
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+}
@@ -1,44 +1,31 @@
 package ru.itq.app.worker;
 
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import ru.itq.api.dto.BatchOperationResult;
 import ru.itq.api.dto.DocumentStatus;
 import ru.itq.app.config.WorkerProperties;
 import ru.itq.core.service.DocumentService;
+import ru.itq.core.service.LeaseRenewer;
 
 import java.util.List;
 
-@Slf4j
 @Component
-@RequiredArgsConstructor
-public class ApproveWorker {
+public class ApproveWorker extends AbstractBatchWorker {
 
-    private final DocumentService documentService;
-    private final WorkerProperties workerProperties;
+    public ApproveWorker(DocumentService documentService, WorkerProperties workerProperties,
+                         LeaseRenewer leaseRenewer, MeterRegistry meterRegistry) {
+        super("APPROVE-worker", DocumentStatus.SUBMITTED, documentService, workerProperties, leaseRenewer, meterRegistry);
+    }
 
-    @Scheduled(fixedDelayString = "${app.worker.approve-delay:30000}")
+    @Scheduled(fixedDelayString = "#{@workerProperties.approveTickDelay}")
     public void processApproveBatch() {
-        long start = System.currentTimeMillis();
-
-        List<Long> ids = documentService.getDocumentIdsForApprove(workerProperties.getBatchSize());
-
-        if (ids.isEmpty()) {
-            return;
-        }
-
-        long remaining = documentService.countByStatus(DocumentStatus.SUBMITTED) - ids.size();
-        log.info("APPROVE-worker: processing batch of {} documents, ~{} SUBMITTED remaining",
-                ids.size(), Math.max(0, remaining));
-
-        List<BatchOperationResult> results = documentService.approveBatch(ids, "APPROVE-worker");
-
-        long successCount = results.stream().filter(r -> "success".equals(r.getResult())).count();
-        long elapsed = System.currentTimeMillis() - start;
+        runTick();
+    }
 
-        log.info("APPROVE-worker: batch completed — processed={}, success={}, elapsed={}ms",
-                ids.size(), successCount, elapsed);
+    @Override
+    protected List<BatchOperationResult> process(List<Long> ids, String initiator) {
+        return documentService.approveBatch(ids, initiator);
     }
 }
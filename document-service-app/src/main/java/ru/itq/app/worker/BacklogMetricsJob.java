@@ -0,0 +1,27 @@
+package ru.itq.app.worker;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.itq.core.service.DocumentMetrics;
+
+/**
+ * Refreshes the backlog size and age gauges, so metric scrapes never hit the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BacklogMetricsJob {
+
+    private final DocumentMetrics documentMetrics;
+
+    @Scheduled(fixedDelayString = "#{@metricsProperties.backlogRefreshDelay}")
+    public void refresh() {
+        try {
+            documentMetrics.refreshBacklog();
+        } catch (Exception e) {
+            log.warn("Backlog metrics refresh failed: {}", e.getMessage());
+        }
+    }
+}
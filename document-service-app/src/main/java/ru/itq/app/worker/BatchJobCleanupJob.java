@@ -0,0 +1,30 @@
+package ru.itq.app.worker;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.itq.core.service.BatchJobService;
+
+/**
+ * Deletes finished batch jobs past their retention every {@code app.jobs.cleanup-delay} ms.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchJobCleanupJob {
+
+    private final BatchJobService batchJobService;
+
+    @Scheduled(fixedDelayString = "#{@jobProperties.cleanupDelay}")
+    public void purge() {
+        try {
+            int deleted = batchJobService.purgeFinished();
+            if (deleted > 0) {
+                log.info("Purged {} finished batch jobs", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Batch job cleanup failed: {}", e.getMessage(), e);
+        }
+    }
+}
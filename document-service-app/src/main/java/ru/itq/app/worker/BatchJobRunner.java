@@ -0,0 +1,90 @@
+package ru.itq.app.worker;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.itq.app.config.WorkerProperties;
+import ru.itq.core.config.JobProperties;
+import ru.itq.core.service.BatchJobService;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Claims batch jobs and runs them on at most {@code app.jobs.concurrency} threads. Jobs left
+ * unfinished by a stopped node are claimed again once their lease expires and resume from
+ * their checkpoint; on shutdown running jobs stop after the current chunk and are released.
+ */
+@Slf4j
+@Component
+public class BatchJobRunner {
+
+    private final BatchJobService batchJobService;
+    private final JobProperties jobProperties;
+    private final String owner;
+    private final ExecutorService executor;
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile boolean stopping;
+
+    public BatchJobRunner(BatchJobService batchJobService, JobProperties jobProperties,
+                          WorkerProperties workerProperties) {
+        this.batchJobService = batchJobService;
+        this.jobProperties = jobProperties;
+        this.owner = workerProperties.getNodeId() + "/batch-job";
+        this.executor = Executors.newFixedThreadPool(jobProperties.getConcurrency(),
+                Thread.ofPlatform().name("batch-job-", 0).factory());
+    }
+
+    @Scheduled(fixedDelayString = "#{@jobProperties.pollDelay}")
+    public void dispatch() {
+        try {
+            while (!stopping && running.get() < jobProperties.getConcurrency()) {
+                Optional<Long> jobId = batchJobService.claim(owner);
+                if (jobId.isEmpty()) {
+                    return;
+                }
+                running.incrementAndGet();
+                executor.execute(() -> run(jobId.get()));
+            }
+        } catch (Exception e) {
+            log.error("Batch job dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void run(Long jobId) {
+        try {
+            log.info("Batch job id={} claimed by {}", jobId, owner);
+            boolean more = true;
+            while (more && !stopping) {
+                more = batchJobService.processNextChunk(jobId, owner);
+            }
+            if (more) {
+                batchJobService.release(jobId, owner);
+                log.info("Batch job id={} released on shutdown", jobId);
+            }
+        } catch (Exception e) {
+            log.error("Batch job id={} failed: {}", jobId, e.getMessage(), e);
+            try {
+                batchJobService.fail(jobId, owner, e.getMessage());
+            } catch (Exception failError) {
+                // The lease expires and another node resumes the job
+                log.error("Batch job id={}: could not mark failed: {}", jobId, failError.getMessage());
+            }
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Batch jobs still running after 30s; their leases expire in {}ms", jobProperties.getLeaseDuration());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.itq.app.worker;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.itq.core.service.HistoryPartitionService;
+
+/**
+ * Creates upcoming document_history partitions and applies the retention policy, at startup
+ * and then every {@code app.history.partitions.maintenance-delay} ms.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.history.partitions", name = "enabled", havingValue = "true")
+public class HistoryPartitionJob {
+
+    private final HistoryPartitionService historyPartitionService;
+
+    @Scheduled(fixedDelayString = "#{@historyPartitionProperties.maintenanceDelay}")
+    public void maintain() {
+        try {
+            historyPartitionService.maintain();
+        } catch (Exception e) {
+            log.error("History partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.itq.app.worker;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.itq.app.idempotency.IdempotencyService;
+
+/**
+ * Deletes stored idempotent responses past their TTL every {@code app.idempotency.cleanup-delay} ms.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyCleanupJob {
+
+    private final IdempotencyService idempotencyService;
+
+    @Scheduled(fixedDelayString = "#{@idempotencyProperties.cleanupDelay}")
+    public void purge() {
+        try {
+            int deleted = idempotencyService.purgeExpired();
+            if (deleted > 0) {
+                log.info("Purged {} expired idempotency keys", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Idempotency key cleanup failed: {}", e.getMessage(), e);
+        }
+    }
+}
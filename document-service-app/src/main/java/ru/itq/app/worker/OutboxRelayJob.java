@@ -0,0 +1,52 @@
+package ru.itq.app.worker;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.itq.core.config.OutboxProperties;
+import ru.itq.core.service.OutboxRelayService;
+
+/**
+ * Relays the document outbox every {@code app.outbox.poll-delay} ms, batch after batch while
+ * batches come back full, and purges delivered events every {@code app.outbox.cleanup-delay} ms.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayJob {
+
+    private final OutboxRelayService outboxRelayService;
+    private final OutboxProperties outboxProperties;
+
+    @Scheduled(fixedDelayString = "#{@outboxProperties.pollDelay}")
+    public void relay() {
+        try {
+            long total = 0;
+            int delivered;
+            do {
+                delivered = outboxRelayService.relayBatch();
+                total += delivered;
+            } while (delivered == outboxProperties.getBatchSize());
+            if (total > 0) {
+                log.debug("Outbox relay delivered {} events", total);
+            }
+        } catch (Exception e) {
+            log.error("Outbox relay failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@outboxProperties.cleanupDelay}")
+    public void purge() {
+        try {
+            int deleted = outboxRelayService.purgeDelivered();
+            if (deleted > 0) {
+                log.info("Purged {} delivered outbox events", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Outbox cleanup failed: {}", e.getMessage(), e);
+        }
+    }
+}
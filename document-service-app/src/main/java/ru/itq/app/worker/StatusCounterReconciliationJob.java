@@ -0,0 +1,29 @@
+package ru.itq.app.worker;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.itq.core.service.DocumentStatusCounterService;
+
+/**
+ * Periodically corrects drift of the status counters, e.g. after rows were inserted
+ * or updated by hand or by a tool that bypasses the service.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatusCounterReconciliationJob {
+
+    private final DocumentStatusCounterService statusCounterService;
+
+    @Scheduled(fixedDelayString = "#{@counterProperties.reconcileDelay}",
+            initialDelayString = "#{@counterProperties.reconcileDelay}")
+    public void reconcile() {
+        try {
+            statusCounterService.reconcile();
+        } catch (Exception e) {
+            log.error("Status counter reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.itq.app;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import ru.itq.api.dto.BatchJobOperation;
+import ru.itq.api.dto.BatchJobResponse;
+import ru.itq.api.dto.BatchJobStatus;
+import ru.itq.core.service.BatchJobService;
+import ru.itq.core.service.DocumentService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * A batch job chunk that runs longer than the job lease must keep the job to its node.
+ */
+@SpringBootTest(properties = "app.jobs.lease-duration=300")
+@ActiveProfiles("test")
+class BatchJobLeaseTest {
+
+    @Autowired
+    private BatchJobService batchJobService;
+
+    @SpyBean
+    private DocumentService documentService;
+
+    @Test
+    void lease_isRenewedWhileChunkRuns() throws Exception {
+        long id = documentService.create("LeaseAuthor", "LeaseDoc", "tester").getId();
+        long jobId = batchJobService.create(BatchJobOperation.SUBMIT, List.of(id), "tester").getId();
+        doAnswer(invocation -> {
+            Thread.sleep(1500);
+            return invocation.callRealMethod();
+        }).when(documentService).submitBatch(anyList(), anyString());
+
+        assertThat(batchJobService.claim("node-a")).contains(jobId);
+        CompletableFuture<Boolean> chunk = CompletableFuture.supplyAsync(
+                () -> batchJobService.processNextChunk(jobId, "node-a"));
+
+        // Well past the lease taken at claim time, the chunk is still running on node-a
+        Thread.sleep(900);
+        assertThat(chunk).isNotDone();
+        assertThat(batchJobService.claim("node-b")).isEmpty();
+
+        assertThat(chunk.get(10, TimeUnit.SECONDS)).isFalse();
+        BatchJobResponse job = batchJobService.get(jobId);
+        assertThat(job.getStatus()).isEqualTo(BatchJobStatus.COMPLETED);
+        assertThat(job.getSuccess()).isEqualTo(1);
+    }
+}
@@ -8,8 +8,41 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.type.TypeReference;
+import ru.itq.api.dto.DocumentResponse;
+import ru.itq.api.dto.DocumentStatus;
+import ru.itq.api.dto.DocumentStatusEvent;
+import ru.itq.app.admission.AdmissionControl;
+import ru.itq.app.admission.AdmissionProperties;
+import ru.itq.app.idempotency.IdempotencyService;
+import ru.itq.app.outbox.InMemoryOutboxSink;
+import ru.itq.app.worker.BatchJobRunner;
+import ru.itq.core.config.ExportProperties;
+import ru.itq.core.domain.exception.IdempotencyKeyInProgressException;
+import ru.itq.core.service.BatchJobService;
+import ru.itq.core.service.OutboxRelayService;
+import ru.itq.core.service.DocumentMetrics;
+import ru.itq.core.service.DocumentResponseCache;
+import ru.itq.core.service.DocumentService;
+import ru.itq.core.service.DocumentStatusCounterService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -26,6 +59,48 @@ class DocumentServiceIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentStatusCounterService statusCounterService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DocumentMetrics documentMetrics;
+
+    @Autowired
+    private BatchJobService batchJobService;
+
+    @Autowired
+    private BatchJobRunner batchJobRunner;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private ExportProperties exportProperties;
+
+    @Autowired
+    private AdmissionProperties admissionProperties;
+
+    @Autowired
+    private OutboxRelayService outboxRelayService;
+
+    @Autowired
+    private InMemoryOutboxSink outboxSink;
+
     @Test
     void happyPath_createSubmitApprove() throws Exception {
         // 1. Create document
@@ -182,6 +257,685 @@ class DocumentServiceIntegrationTest {
                 .isEqualTo(9);
     }
 
+    @Test
+    void claimBatch_leasesAreExclusiveUntilReleasedOrExpired() throws Exception {
+        long id1 = createDocument("LeaseAuthor1", "LeaseDoc1");
+        long id2 = createDocument("LeaseAuthor2", "LeaseDoc2");
+        Duration lease = Duration.ofMinutes(5);
+
+        List<Long> claimedByA = documentService.claimBatch(DocumentStatus.DRAFT, 1000, "node-a", lease);
+        assertThat(claimedByA).contains(id1, id2);
+        List<Long> claimedByB = documentService.claimBatch(DocumentStatus.DRAFT, 1000, "node-b", lease);
+        assertThat(claimedByB).doesNotContain(id1, id2);
+
+        // Only the owner can release its lease
+        assertThat(documentService.releaseLease(List.of(id1), "node-b")).isZero();
+        assertThat(documentService.releaseLease(List.of(id1), "node-a")).isEqualTo(1);
+        List<Long> reclaimedByB = documentService.claimBatch(DocumentStatus.DRAFT, 1000, "node-b", lease);
+        assertThat(reclaimedByB).contains(id1).doesNotContain(id2);
+
+        // An expired lease is claimable again
+        documentService.releaseLease(claimedByA, "node-a");
+        documentService.releaseLease(claimedByB, "node-b");
+        documentService.releaseLease(reclaimedByB, "node-b");
+        documentService.claimBatch(DocumentStatus.DRAFT, 1000, "node-a", Duration.ofMillis(-1));
+        List<Long> claimedAfterExpiry = documentService.claimBatch(DocumentStatus.DRAFT, 1000, "node-b", lease);
+        assertThat(claimedAfterExpiry).contains(id1, id2);
+        // Leave no draft leased for the tests that follow
+        documentService.releaseLease(claimedAfterExpiry, "node-b");
+    }
+
+    @Test
+    void stats_followCreateSubmitApprove() throws Exception {
+        JsonNode before = getStats();
+        long id1 = createDocument("StatsAuthor1", "StatsDoc1");
+        long id2 = createDocument("StatsAuthor2", "StatsDoc2");
+        submitDocuments(id1, id2);
+        mockMvc.perform(post("/api/documents/approve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"ids": [%d], "initiator": "tester"}
+                                """.formatted(id1)))
+                .andExpect(status().isOk());
+
+        JsonNode after = getStats();
+        assertThat(countOf(after, "DRAFT")).isEqualTo(countOf(before, "DRAFT"));
+        assertThat(countOf(after, "SUBMITTED")).isEqualTo(countOf(before, "SUBMITTED") + 1);
+        assertThat(countOf(after, "APPROVED")).isEqualTo(countOf(before, "APPROVED") + 1);
+        assertThat(after.get("total").asLong()).isEqualTo(before.get("total").asLong() + 2);
+        assertThat(statusCounterService.reconcile()).isEmpty();
+    }
+
+    @Test
+    void reconcile_correctsCounterDrift() throws Exception {
+        createDocument("DriftAuthor", "DriftDoc");
+        long draftCount = documentService.countByStatus(DocumentStatus.DRAFT);
+        // Simulate a write that bypassed the service
+        jdbcTemplate.update("UPDATE document_status_counter SET cnt = cnt + 5 WHERE status = 'DRAFT'"
+                + " AND stripe = (SELECT MIN(stripe) FROM document_status_counter WHERE status = 'DRAFT')");
+        assertThat(documentService.countByStatus(DocumentStatus.DRAFT)).isEqualTo(draftCount + 5);
+
+        assertThat(statusCounterService.reconcile()).containsEntry(DocumentStatus.DRAFT, -5L);
+        assertThat(documentService.countByStatus(DocumentStatus.DRAFT)).isEqualTo(draftCount);
+    }
+
+    @Test
+    void batchCreate_createsAllDocumentsInRequestOrder() throws Exception {
+        StringBuilder documents = new StringBuilder();
+        int count = 1200;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) documents.append(",");
+            documents.append("{\"author\": \"BatchCreate\", \"title\": \"Doc ").append(i).append("\"}");
+        }
+        long draftsBefore = documentService.countByStatus(DocumentStatus.DRAFT);
+
+        MvcResult result = mockMvc.perform(post("/api/documents/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"documents\": [" + documents + "], \"initiator\": \"tester\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(count))
+                .andReturn();
+
+        JsonNode response = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(response.get("ids").size()).isEqualTo(count);
+        assertThat(response.get("documentNumbers").size()).isEqualTo(count);
+        assertThat(documentService.countByStatus(DocumentStatus.DRAFT)).isEqualTo(draftsBefore + count);
+
+        long lastId = response.get("ids").get(count - 1).asLong();
+        mockMvc.perform(get("/api/documents/{id}", lastId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Doc " + (count - 1)))
+                .andExpect(jsonPath("$.documentNumber").value(response.get("documentNumbers").get(count - 1).asText()))
+                .andExpect(jsonPath("$.status").value("DRAFT"));
+    }
+
+    @Test
+    void batchCreate_rejectsInvalidItem() throws Exception {
+        mockMvc.perform(post("/api/documents/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"documents": [{"author": "A", "title": "T"}, {"author": "", "title": "T"}],
+                                 "initiator": "tester"}
+                                """))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void getById_servedFromCacheAndRefreshedAfterTransition() throws Exception {
+        long docId = createDocument("CacheAuthor", "CacheDoc");
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                ((CaffeineCache) cacheManager.getCache(DocumentResponseCache.CACHE_NAME)).getNativeCache();
+
+        mockMvc.perform(get("/api/documents/{id}", docId)).andExpect(status().isOk());
+        long hitsBefore = nativeCache.stats().hitCount();
+        mockMvc.perform(get("/api/documents/{id}", docId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DRAFT"));
+        assertThat(nativeCache.stats().hitCount()).isEqualTo(hitsBefore + 1);
+
+        submitDocuments(docId);
+        assertThat(nativeCache.getIfPresent(docId)).isNull();
+        mockMvc.perform(get("/api/documents/{id}", docId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUBMITTED"))
+                .andExpect(jsonPath("$.history.length()").value(1));
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:documents"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void search_matchesLikeWildcardsInAuthorLiterally() throws Exception {
+        long literal = createDocument("Wild_Card 100%", "WildDoc1");
+        createDocument("WildXCard 1000", "WildDoc2");
+
+        mockMvc.perform(get("/api/documents/search").param("author", "wild_card 100%"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(literal));
+    }
+
+    @Test
+    void cursorSearch_walksAllPagesWithoutGapsOrDuplicates() throws Exception {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(createDocument("CursorAuthor", "CursorDoc" + i));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MvcResult result = mockMvc.perform(get("/api/documents/search/cursor")
+                            .param("author", "cursorauthor")
+                            .param("size", "2")
+                            .param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+            page.get("content").forEach(doc -> seen.add(doc.get("id").asLong()));
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        // Newest first; ids break ties between equal createdAt values
+        assertThat(seen).containsExactlyElementsOf(created.reversed());
+    }
+
+    @Test
+    void cursorSearch_rejectsInvalidCursorAndSize() throws Exception {
+        mockMvc.perform(get("/api/documents/search/cursor").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_CURSOR"));
+        mockMvc.perform(get("/api/documents/search/cursor").param("size", "0"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+    }
+
+    private JsonNode getStats() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/documents/stats"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static long countOf(JsonNode stats, String status) {
+        JsonNode count = stats.get("countsByStatus").get(status);
+        return count == null ? 0 : count.asLong();
+    }
+
+    @Test
+    void metrics_recordTransitionResultsBatchesAndBacklog() throws Exception {
+        double successBefore = resultCount("submit", "success");
+        double notFoundBefore = resultCount("submit", "not_found");
+        long batchesBefore = meterRegistry.find("document.batch.size").tag("operation", "submit")
+                .summaries().stream().mapToLong(DistributionSummary::count).sum();
+
+        long id = createDocument("MetricsAuthor", "MetricsDoc");
+        documentService.submitBatch(List.of(id, 99999L), "tester");
+
+        assertThat(resultCount("submit", "success")).isEqualTo(successBefore + 1);
+        assertThat(resultCount("submit", "not_found")).isEqualTo(notFoundBefore + 1);
+        // Test profile runs per-document transactions, each timed under its result
+        assertThat(meterRegistry.get("document.transition")
+                .tags("operation", "submit", "result", "success").timer().count()).isPositive();
+        assertThat(meterRegistry.find("document.batch.size").tag("operation", "submit")
+                .summaries().stream().mapToLong(DistributionSummary::count).sum()).isEqualTo(batchesBefore + 1);
+
+        createDocument("MetricsAuthor", "MetricsDraft");
+        jdbcTemplate.update("UPDATE document SET created_at = ? WHERE id = (SELECT MIN(id) FROM document WHERE status = 'DRAFT')",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+        documentMetrics.refreshBacklog();
+        assertThat(meterRegistry.get("document.backlog.size").tag("status", "DRAFT").gauge().value())
+                .isEqualTo(documentService.countByStatus(DocumentStatus.DRAFT));
+        assertThat(meterRegistry.get("document.backlog.age").tag("status", "DRAFT").gauge().value())
+                .isGreaterThanOrEqualTo(3600);
+    }
+
+    @Test
+    void export_streamsFilteredRowsAsNdjsonAndCsv() throws Exception {
+        // Comma and quotes exercise CSV quoting; escaped for the JSON request body
+        String author = "Export, \\\"Quoted\\\" author";
+        long id1 = createDocument(author, "Export 1");
+        long id2 = createDocument(author, "Export 2");
+        long id3 = createDocument(author, "Export 3");
+        submitDocuments(id3);
+
+        MvcResult ndjson = mockMvc.perform(get("/api/documents/export")
+                        .param("status", "DRAFT")
+                        .param("author", "export, \"quoted"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body.split("\\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        // Newest first, the SUBMITTED one filtered out
+        assertThat(rows).extracting(row -> row.get("id").asLong()).containsExactly(id2, id1);
+        assertThat(rows.get(0).get("status").asText()).isEqualTo("DRAFT");
+        assertThat(rows.get(0).has("history")).isFalse();
+
+        MvcResult csv = mockMvc.perform(get("/api/documents/export")
+                        .param("author", "export, \"quoted")
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8).split("\\r\\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).isEqualTo("id,documentNumber,author,title,status,version,createdAt,updatedAt");
+        assertThat(lines[1]).startsWith(id3 + ",").contains(",\"Export, \"\"Quoted\"\" author\",Export 3,SUBMITTED,1,");
+
+        mockMvc.perform(get("/api/documents/export").param("format", "XML"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+    }
+
+    @Test
+    void export_returnsSameDocumentsAsSearch() throws Exception {
+        // Both queries must escape the underscore, or "parity_" would also match ParityXAuthor
+        long[] ids = new long[6];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = createDocument(i % 2 == 0 ? "Parity_Author" : "ParityXAuthor", "Parity " + i);
+            jdbcTemplate.update("UPDATE document SET created_at = ? WHERE id = ?",
+                    Timestamp.valueOf(LocalDateTime.of(2020, 1, 1 + i, 12, 0)), ids[i]);
+        }
+        submitDocuments(ids[0], ids[1], ids[2]);
+
+        List<Map<String, String>> filters = List.of(
+                Map.of("author", "parity_"),
+                Map.of("author", "PARITY", "status", "SUBMITTED"),
+                Map.of("author", "parity", "dateFrom", "2020-01-02T12:00:00", "dateTo", "2020-01-05T12:00:00"),
+                Map.of("status", "DRAFT", "dateFrom", "2020-01-01T00:00:00", "dateTo", "2020-01-31T00:00:00"));
+        for (Map<String, String> filter : filters) {
+            MockHttpServletRequestBuilder search = get("/api/documents/search").param("size", "100");
+            MockHttpServletRequestBuilder export = get("/api/documents/export");
+            filter.forEach((name, value) -> {
+                search.param(name, value);
+                export.param(name, value);
+            });
+            JsonNode page = objectMapper.readTree(mockMvc.perform(search)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            List<Long> searched = new ArrayList<>();
+            page.get("content").forEach(row -> searched.add(row.get("id").asLong()));
+
+            MvcResult stream = mockMvc.perform(export)
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            assertThat(stream.getRequest().getAsyncContext().getTimeout()).isEqualTo(exportProperties.getTimeout());
+            List<Long> exported = new ArrayList<>();
+            for (String line : mockMvc.perform(asyncDispatch(stream)).andReturn().getResponse()
+                    .getContentAsString().split("\\n")) {
+                exported.add(objectMapper.readTree(line).get("id").asLong());
+            }
+
+            assertThat(exported).as("%s", filter).isNotEmpty().containsExactlyElementsOf(searched);
+        }
+    }
+
+    @Test
+    void history_pagedAndIncludedInMultiGet() throws Exception {
+        long id1 = createDocument("HistoryAuthor", "HistoryDoc1");
+        long id2 = createDocument("HistoryAuthor", "HistoryDoc2");
+        long id3 = createDocument("HistoryAuthor", "HistoryDoc3");
+        submitDocuments(id1, id2);
+        mockMvc.perform(post("/api/documents/approve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"ids": [%d], "initiator": "tester"}
+                                """.formatted(id1)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/documents/{id}/history", id1).param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].action").value("SUBMIT"));
+        mockMvc.perform(get("/api/documents/{id}/history", id1).param("size", "1").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].action").value("APPROVE"))
+                .andExpect(jsonPath("$.content[0].documentId").value(id1));
+        mockMvc.perform(get("/api/documents/{id}/history", id3))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+        mockMvc.perform(get("/api/documents/{id}/history", 999999L))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/documents")
+                        .param("ids", id1 + "," + id2 + "," + id3)
+                        .param("include", "history")
+                        .param("sort", "id,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].history.length()").value(2))
+                .andExpect(jsonPath("$.content[0].history[1].action").value("APPROVE"))
+                .andExpect(jsonPath("$.content[1].history.length()").value(1))
+                .andExpect(jsonPath("$.content[2].history.length()").value(0));
+        mockMvc.perform(get("/api/documents").param("ids", String.valueOf(id1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].history").doesNotExist());
+    }
+
+    @Test
+    void batchJob_resumesFromCheckpointAndPagesResults() throws Exception {
+        long id1 = createDocument("JobAuthor", "JobDoc1");
+        long id2 = createDocument("JobAuthor", "JobDoc2");
+        long id3 = createDocument("JobAuthor", "JobDoc3");
+        long nonExistentId = 99999L;
+
+        MvcResult created = mockMvc.perform(post("/api/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"operation": "SUBMIT", "ids": [%d, %d, %d, %d, %d], "initiator": "tester"}
+                                """.formatted(id1, nonExistentId, id2, id1, id3)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.total").value(5))
+                .andReturn();
+        long jobId = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+        assertThat(created.getResponse().getHeader("Location")).endsWith("/api/jobs/" + jobId);
+
+        // A node checkpoints the first chunk (chunk-size 2) and dies; its lease then expires
+        assertThat(batchJobService.claim("crashed-node")).contains(jobId);
+        assertThat(batchJobService.processNextChunk(jobId, "crashed-node")).isTrue();
+        jdbcTemplate.update("UPDATE batch_job SET lease_expires_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), jobId);
+
+        batchJobRunner.dispatch();
+        JsonNode job = null;
+        for (int i = 0; i < 100; i++) {
+            MvcResult polled = mockMvc.perform(get("/api/jobs/{id}", jobId))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            job = objectMapper.readTree(polled.getResponse().getContentAsString());
+            if ("COMPLETED".equals(job.get("status").asText())) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        assertThat(job.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(job.get("processed").asInt()).isEqualTo(5);
+        // Resumed at the checkpoint: id1 was not submitted twice, only its duplicate conflicts
+        assertThat(job.get("success").asInt()).isEqualTo(3);
+        assertThat(job.get("conflict").asInt()).isEqualTo(1);
+        assertThat(job.get("notFound").asInt()).isEqualTo(1);
+        assertThat(job.hasNonNull("finishedAt")).isTrue();
+
+        mockMvc.perform(get("/api/jobs/{id}/results", jobId).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(5))
+                .andExpect(jsonPath("$.content[0].id").value(id1))
+                .andExpect(jsonPath("$.content[0].result").value("success"))
+                .andExpect(jsonPath("$.content[1].result").value("not_found"));
+        mockMvc.perform(get("/api/jobs/{id}/results", jobId).param("size", "2").param("page", "1"))
+                .andExpect(jsonPath("$.content[0].id").value(id2))
+                .andExpect(jsonPath("$.content[1].id").value(id1))
+                .andExpect(jsonPath("$.content[1].result").value("conflict"));
+        mockMvc.perform(get("/api/documents/{id}", id3))
+                .andExpect(jsonPath("$.status").value("SUBMITTED"));
+
+        mockMvc.perform(get("/api/jobs/{id}", 999999L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("JOB_NOT_FOUND"));
+        mockMvc.perform(post("/api/jobs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"ids": [%d], "initiator": "tester"}
+                                """.formatted(id1)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void idempotencyKey_createRolledBackWhenResponseCannotBeStored() {
+        // The request outlives lock-timeout and another node takes the key over before it commits
+        assertThatThrownBy(() -> idempotencyService.execute("create-taken-over", "POST /api/documents", "request",
+                true, new TypeReference<DocumentResponse>() {}, () -> {
+                    DocumentResponse created = documentService.create("TakenOverAuthor", "TakenOverDoc", "tester");
+                    jdbcTemplate.update("UPDATE idempotency_record SET created_at = ? WHERE idempotency_key = ?",
+                            Timestamp.valueOf(LocalDateTime.now().plusSeconds(1)), "create-taken-over");
+                    return created;
+                }))
+                .isInstanceOf(IdempotencyKeyInProgressException.class);
+
+        // Document and response commit together: no document the stored response does not know about
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM document WHERE title = 'TakenOverDoc'", Long.class)).isZero();
+    }
+
+    @Test
+    void idempotencyKey_replaysResponseAndRejectsReuse() throws Exception {
+        String createBody = """
+                {"author": "IdemAuthor", "title": "IdemDoc", "initiator": "tester"}
+                """;
+        MvcResult first = mockMvc.perform(post("/api/documents")
+                        .header("Idempotency-Key", "create-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(createBody))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"))
+                .andReturn();
+        long id = objectMapper.readTree(first.getResponse().getContentAsString()).get("id").asLong();
+        mockMvc.perform(post("/api/documents")
+                        .header("Idempotency-Key", "create-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(createBody))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(id));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM document WHERE title = 'IdemDoc'", Long.class)).isEqualTo(1);
+
+        // Same key with another request or on another endpoint
+        mockMvc.perform(post("/api/documents")
+                        .header("Idempotency-Key", "create-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"author": "IdemAuthor", "title": "OtherDoc", "initiator": "tester"}
+                                """))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.code").value("IDEMPOTENCY_KEY_REUSED"));
+
+        // A retried submit gets the original results, not conflicts
+        String submitBody = """
+                {"ids": [%d], "initiator": "tester"}
+                """.formatted(id);
+        for (String replayed : List.of("false", "true")) {
+            mockMvc.perform(post("/api/documents/submit")
+                            .header("Idempotency-Key", "submit-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(submitBody))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Idempotent-Replayed", replayed))
+                    .andExpect(jsonPath("$[0].result").value("success"));
+        }
+        mockMvc.perform(post("/api/documents/submit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(submitBody))
+                .andExpect(jsonPath("$[0].result").value("conflict"));
+
+        // Another node is still running the first request; once it is presumed dead the key is reusable
+        jdbcTemplate.update("""
+                INSERT INTO idempotency_record (idempotency_key, endpoint, request_hash, created_at, expires_at)
+                VALUES ('create-2', 'POST /api/documents', 'x', ?, ?)
+                """, Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(LocalDateTime.now().plusDays(1)));
+        mockMvc.perform(post("/api/documents")
+                        .header("Idempotency-Key", "create-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(createBody))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("IDEMPOTENCY_KEY_IN_PROGRESS"));
+        jdbcTemplate.update("UPDATE idempotency_record SET created_at = ? WHERE idempotency_key = 'create-2'",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+        mockMvc.perform(post("/api/documents")
+                        .header("Idempotency-Key", "create-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(createBody))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"));
+
+        jdbcTemplate.update("UPDATE idempotency_record SET expires_at = ? WHERE idempotency_key = 'create-2'",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)));
+        assertThat(idempotencyService.purgeExpired()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM idempotency_record WHERE idempotency_key IN ('create-1', 'submit-1')", Long.class))
+                .isEqualTo(2);
+
+        mockMvc.perform(post("/api/documents")
+                        .header("Idempotency-Key", "")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(createBody))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void outbox_relaysTransitionsOnceAndPurgesDelivered() throws Exception {
+        long id = createDocument("OutboxAuthor", "OutboxDoc");
+        submitDocuments(id);
+        mockMvc.perform(post("/api/documents/approve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"ids": [%d], "initiator": "tester"}
+                                """.formatted(id)))
+                .andExpect(jsonPath("$[0].result").value("success"));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM document_outbox WHERE document_id = ? AND delivered_at IS NULL", Long.class, id))
+                .isEqualTo(2);
+
+        while (outboxRelayService.relayBatch() > 0) {
+            // drain everything written by this and earlier tests
+        }
+        assertThat(outboxRelayService.relayBatch()).isZero();
+
+        List<DocumentStatusEvent> events = outboxSink.getEvents().stream()
+                .filter(event -> event.getDocumentId() == id)
+                .toList();
+        assertThat(events).extracting(DocumentStatusEvent::getStatus)
+                .containsExactly(DocumentStatus.SUBMITTED, DocumentStatus.APPROVED);
+        assertThat(events.get(0).getEventId()).isLessThan(events.get(1).getEventId());
+        assertThat(events.get(1).getPerformedBy()).isEqualTo("tester");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM document_outbox WHERE document_id = ? AND delivered_at IS NOT NULL", Long.class, id))
+                .isEqualTo(2);
+
+        jdbcTemplate.update("UPDATE document_outbox SET delivered_at = ? WHERE document_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(1)), id);
+        assertThat(outboxRelayService.purgeDelivered()).isGreaterThanOrEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM document_outbox WHERE document_id = ?", Long.class, id)).isZero();
+    }
+
+    @Test
+    void eventStream_pushesSnapshotAndCommittedTransitions() throws Exception {
+        long id = createDocument("StreamAuthor", "StreamDoc");
+        long other = createDocument("Unrelated", "StreamDoc");
+        MvcResult single = mockMvc.perform(get("/api/documents/{id}/events", id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult filtered = mockMvc.perform(get("/api/documents/events")
+                        .param("status", "APPROVED")
+                        .param("author", "streamauth"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(awaitStream(single, "\"status\":\"DRAFT\"")).contains("event:snapshot");
+
+        submitDocuments(id, other);
+        mockMvc.perform(post("/api/documents/approve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"ids": [%d, %d], "initiator": "approver"}
+                                """.formatted(id, other)))
+                .andExpect(jsonPath("$[0].result").value("success"));
+
+        String events = awaitStream(single, "\"documentId\":%d,\"status\":\"APPROVED\"".formatted(id));
+        assertThat(events).contains("event:transition",
+                        "\"documentId\":%d,\"status\":\"SUBMITTED\",\"performedBy\":\"tester\"".formatted(id))
+                .doesNotContain("\"documentId\":%d,".formatted(other));
+        // Only the APPROVED transition of the matching author
+        String matching = awaitStream(filtered,
+                "\"documentId\":%d,\"status\":\"APPROVED\",\"performedBy\":\"approver\"".formatted(id));
+        assertThat(matching).doesNotContain("SUBMITTED", "\"documentId\":%d,".formatted(other));
+
+        mockMvc.perform(get("/api/documents/{id}/events", 99999L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("DOCUMENT_NOT_FOUND"));
+
+        single.getRequest().getAsyncContext().complete();
+        filtered.getRequest().getAsyncContext().complete();
+        assertThat(meterRegistry.get("document.stream.subscribers").gauge().value()).isZero();
+    }
+
+    private static String awaitStream(MvcResult stream, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = stream.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = stream.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    @Test
+    void admission_rejectsOverRateOrConcurrencyLimitWith429() throws Exception {
+        long id = createDocument("AdmissionAuthor", "AdmissionDoc");
+        String greedy = """
+                {"ids": [%d], "initiator": "greedy"}
+                """.formatted(id);
+        int burst = admissionProperties.getBurst();
+        double rate = admissionProperties.getRate();
+        admissionProperties.setEnabled(true);
+        admissionProperties.setBurst(2);
+        admissionProperties.setRate(0.5);
+        List<AdmissionControl.Permit> held = new ArrayList<>();
+        try {
+            mockMvc.perform(post("/api/documents/submit")
+                            .header("Idempotency-Key", "admission-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(greedy))
+                    .andExpect(status().isOk());
+            mockMvc.perform(post("/api/documents/submit").contentType(MediaType.APPLICATION_JSON).content(greedy))
+                    .andExpect(status().isOk());
+            mockMvc.perform(post("/api/documents/submit").contentType(MediaType.APPLICATION_JSON).content(greedy))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "2"))
+                    .andExpect(jsonPath("$.code").value("TOO_MANY_REQUESTS"));
+            // A replay runs nothing, so it is answered without a token
+            mockMvc.perform(post("/api/documents/submit")
+                            .header("Idempotency-Key", "admission-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(greedy))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Idempotent-Replayed", "true"));
+            // Buckets are per initiator
+            mockMvc.perform(post("/api/documents/submit")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {"ids": [%d], "initiator": "patient"}
+                                    """.formatted(id)))
+                    .andExpect(status().isOk());
+            // An initiator named after the client address does not spend the client's tokens
+            String impostor = """
+                    {"ids": [%d], "initiator": "127.0.0.1"}
+                    """.formatted(id);
+            for (int i = 0; i < 3; i++) {
+                mockMvc.perform(post("/api/documents/submit").contentType(MediaType.APPLICATION_JSON).content(impostor));
+            }
+            mockMvc.perform(get("/api/documents/search").param("author", "AdmissionAuthor").with(request -> {
+                        request.setRemoteAddr("127.0.0.1");
+                        return request;
+                    }))
+                    .andExpect(status().isOk());
+
+            for (int i = 0; i < admissionProperties.getMaxConcurrent(); i++) {
+                held.add(admissionControl.admit("holder-" + i));
+            }
+            mockMvc.perform(get("/api/documents/search").param("author", "AdmissionAuthor"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "1"));
+            // Single-document reads are not limited
+            mockMvc.perform(get("/api/documents/{id}", id))
+                    .andExpect(status().isOk());
+
+            held.forEach(AdmissionControl.Permit::close);
+            mockMvc.perform(get("/api/documents/search").param("author", "AdmissionAuthor"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(1));
+        } finally {
+            held.forEach(AdmissionControl.Permit::close);
+            admissionProperties.setEnabled(false);
+            admissionProperties.setBurst(burst);
+            admissionProperties.setRate(rate);
+        }
+        assertThat(meterRegistry.get("document.admission.in_flight").gauge().value()).isZero();
+    }
+
     private long createDocument(String author, String title) throws Exception {
         String body = """
                 {"author": "%s", "title": "%s", "initiator": "tester"}
@@ -211,4 +965,10 @@ class DocumentServiceIntegrationTest {
                         .content(body))
                 .andExpect(status().isOk());
     }
+
+    private double resultCount(String operation, String result) {
+        Counter counter = meterRegistry.find("document.transition.results")
+                .tags("operation", operation, "result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
 }
@@ -0,0 +1,80 @@
+package ru.itq.app;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itq.api.dto.HistoryAction;
+import ru.itq.core.domain.entity.DocumentHistory;
+import ru.itq.core.persistence.DocumentHistoryRepository;
+import ru.itq.core.service.DocumentService;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sequence-generated ids must let Hibernate group inserts into JDBC batches
+ * (hibernate.jdbc.batch_size = 50).
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session.events.auto=ru.itq.app.InsertBatchingTest$BatchCountingListener"
+})
+@ActiveProfiles("test")
+class InsertBatchingTest {
+
+    private static final AtomicInteger BATCHES_EXECUTED = new AtomicInteger();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentHistoryRepository documentHistoryRepository;
+
+    @Test
+    void historyInserts_areSentAsJdbcBatches() {
+        long docId = documentService.create("BatchAuthor", "BatchDoc", "tester").getId();
+        int inserts = 120;
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        BATCHES_EXECUTED.set(0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < inserts; i++) {
+                documentHistoryRepository.save(DocumentHistory.builder()
+                        .documentId(docId)
+                        .performedBy("tester")
+                        .action(HistoryAction.SUBMIT)
+                        .comment("Batched insert #" + i)
+                        .build());
+            }
+        });
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(inserts);
+        // 120 rows with batch_size 50 -> 3 executeBatch() calls instead of 120 executeUpdate()
+        assertThat(BATCHES_EXECUTED.get()).isEqualTo(3);
+        // 3 insert statements + 3 sequence calls (allocationSize 50)
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+    }
+
+    public static class BatchCountingListener extends BaseSessionEventListener {
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            BATCHES_EXECUTED.incrementAndGet();
+        }
+    }
+}
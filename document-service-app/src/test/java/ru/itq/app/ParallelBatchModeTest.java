@@ -0,0 +1,66 @@
+package ru.itq.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.itq.core.service.DocumentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Batch endpoints in {@code app.batch.mode=parallel}; the test profile keeps per-document mode.
+ */
+@SpringBootTest(properties = "app.batch.mode=parallel")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ParallelBatchModeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Test
+    void batchSubmitAndApprove_preserveInputOrder() throws Exception {
+        // Operations complete out of order on virtual threads: results must still follow input order
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(i % 3 == 0 ? 900_000L + i : documentService.create("OrderAuthor", "OrderDoc" + i, "tester").getId());
+        }
+
+        assertResultsInOrder("/api/documents/submit", ids);
+        assertResultsInOrder("/api/documents/approve", ids);
+    }
+
+    private void assertResultsInOrder(String path, List<Long> ids) throws Exception {
+        MvcResult result = mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("ids", ids, "initiator", "tester"))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode results = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(results.size()).isEqualTo(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertThat(results.get(i).get("id").asLong()).isEqualTo(ids.get(i));
+            assertThat(results.get(i).get("result").asText()).isEqualTo(i % 3 == 0 ? "not_found" : "success");
+        }
+    }
+}
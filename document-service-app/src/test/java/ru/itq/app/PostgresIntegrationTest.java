@@ -0,0 +1,317 @@
+package ru.itq.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.itq.api.dto.BatchJobOperation;
+import ru.itq.core.config.HistoryPartitionProperties;
+import ru.itq.core.persistence.DocumentHistoryPartitionRepository;
+import ru.itq.core.service.BatchJobService;
+import ru.itq.core.service.DocumentService;
+import ru.itq.core.service.DocumentStatusCounterService;
+import ru.itq.core.service.HistoryPartitionService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against a real PostgreSQL with the Liquibase schema, for code paths that
+ * rely on PostgreSQL-only SQL. Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = {
+        "app.batch.mode=bulk",
+        "app.worker.submit-delay=999999999",
+        "app.worker.approve-delay=999999999",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.itq.app.PostgresIntegrationTest$SqlCapture"
+})
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentStatusCounterService statusCounterService;
+
+    @Autowired
+    private HistoryPartitionService historyPartitionService;
+
+    @Autowired
+    private HistoryPartitionProperties partitionProperties;
+
+    @Autowired
+    private DocumentHistoryPartitionRepository partitionRepository;
+
+    @Autowired
+    private BatchJobService batchJobService;
+
+    @Test
+    void bulkSubmit_partialResults() throws Exception {
+        long id1 = createDocument("BulkAuthor1", "BulkDoc1");
+        long id2 = createDocument("BulkAuthor2", "BulkDoc2");
+        long nonExistentId = 99999L;
+
+        String body = """
+                {"ids": [%d, %d, %d, %d], "initiator": "tester"}
+                """.formatted(id1, nonExistentId, id2, id1);
+        MvcResult result = mockMvc.perform(post("/api/documents/submit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode results = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(results.size()).isEqualTo(4);
+        assertThat(results.get(0).get("result").asText()).isEqualTo("success");
+        assertThat(results.get(1).get("result").asText()).isEqualTo("not_found");
+        assertThat(results.get(2).get("result").asText()).isEqualTo("success");
+        assertThat(results.get(3).get("result").asText()).isEqualTo("conflict");
+
+        // Second submit of the same document — conflict, state untouched
+        mockMvc.perform(post("/api/documents/submit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"ids": [%d], "initiator": "tester"}
+                                """.formatted(id2)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].result").value("conflict"));
+
+        MvcResult getResult = mockMvc.perform(get("/api/documents/{id}", id1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUBMITTED"))
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn();
+        JsonNode doc = objectMapper.readTree(getResult.getResponse().getContentAsString());
+        assertThat(doc.get("history").size()).isEqualTo(1);
+        assertThat(doc.get("history").get(0).get("action").asText()).isEqualTo("SUBMIT");
+        // One outbox event per moved document, written by the same set-based transaction
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT document_id FROM document_outbox WHERE status = 'SUBMITTED' AND document_id IN (?, ?)",
+                Long.class, id1, id2)).containsExactlyInAnyOrder(id1, id2);
+    }
+
+    @Test
+    void bulkApprove_reportsConflictAndRegistryError() throws Exception {
+        long id1 = createDocument("BulkAuthor1", "BulkApprove1");
+        long id2 = createDocument("BulkAuthor2", "BulkApprove2");
+        long id3 = createDocument("BulkAuthor3", "BulkApprove3");
+        long nonExistentId = 99999L;
+        mockMvc.perform(post("/api/documents/submit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"ids": [%d, %d], "initiator": "tester"}
+                                """.formatted(id1, id2)))
+                .andExpect(status().isOk());
+
+        // id2 already has a registry entry (e.g. written by an external system)
+        jdbcTemplate.update("INSERT INTO approval_registry (document_id, approved_by, approved_at) VALUES (?, 'external', NOW())",
+                id2);
+
+        String body = """
+                {"ids": [%d, %d, %d, %d], "initiator": "tester"}
+                """.formatted(id1, id2, id3, nonExistentId);
+        MvcResult result = mockMvc.perform(post("/api/documents/approve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        JsonNode results = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertThat(results.get(0).get("result").asText()).isEqualTo("success");
+        assertThat(results.get(1).get("result").asText()).isEqualTo("registry_error");
+        assertThat(results.get(2).get("result").asText()).isEqualTo("conflict");
+        assertThat(results.get(3).get("result").asText()).isEqualTo("not_found");
+
+        mockMvc.perform(get("/api/documents/{id}", id1))
+                .andExpect(jsonPath("$.status").value("APPROVED"))
+                .andExpect(jsonPath("$.history.length()").value(2));
+        // Rolled back: still SUBMITTED, no APPROVE history
+        mockMvc.perform(get("/api/documents/{id}", id2))
+                .andExpect(jsonPath("$.status").value("SUBMITTED"))
+                .andExpect(jsonPath("$.history.length()").value(1));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT approved_by FROM approval_registry WHERE document_id = ?", String.class, id1))
+                .isEqualTo("tester");
+        // Bulk transitions keep the status counters in step with the table
+        assertThat(statusCounterService.reconcile()).isEmpty();
+    }
+
+    @Test
+    void authorSearch_usesTrigramIndex() {
+        jdbcTemplate.update("""
+                INSERT INTO document (document_number, author, title, status)
+                SELECT 'TRGM-' || g, 'Author ' || md5(g::text), 'Trigram plan', 'DRAFT'
+                FROM generate_series(1, 50000) g
+                """);
+        try {
+            // The rows above bypassed the service
+            statusCounterService.reconcile();
+            // VACUUM also merges the GIN pending list, which the planner would otherwise cost in
+            jdbcTemplate.execute("VACUUM ANALYZE document");
+
+            String fragment = jdbcTemplate.queryForObject("SELECT substr(md5('4242'), 5, 10)", String.class);
+            SqlCapture.STATEMENTS.clear();
+            documentService.search(null, fragment, null, null,
+                    PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt")));
+            // The page query exactly as Hibernate renders it from DocumentSpecifications
+            String sql = SqlCapture.STATEMENTS.stream()
+                    .filter(statement -> statement.contains(" like ") && !statement.contains("count("))
+                    .findFirst()
+                    .orElseThrow();
+
+            List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class,
+                    searchParameters(sql, "%" + fragment + "%", 20));
+
+            assertThat(String.join("\n", plan)).as(sql).contains("idx_document_author_trgm");
+        } finally {
+            jdbcTemplate.update("DELETE FROM document WHERE document_number LIKE 'TRGM-%'");
+            statusCounterService.reconcile();
+        }
+    }
+
+    @Test
+    void historyPartitions_premadeAndExpiredByRetention() throws Exception {
+        YearMonth current = YearMonth.now();
+        YearMonth old = current.minusMonths(24);
+        long id = createDocument("PartitionAuthor", "PartitionDoc");
+        partitionRepository.createPartition(old);
+        jdbcTemplate.update("""
+                INSERT INTO document_history (document_id, performed_by, action, comment, created_at)
+                VALUES (?, 'tester', 'SUBMIT', 'old', ?)
+                """, id, Timestamp.valueOf(old.atDay(15).atStartOfDay()));
+
+        partitionProperties.setRetentionMonths(12);
+        try {
+            historyPartitionService.maintain(current.plusMonths(1));
+        } finally {
+            partitionProperties.setRetentionMonths(0);
+        }
+
+        List<YearMonth> months = partitionRepository.findPartitionMonths();
+        assertThat(months).doesNotContain(old)
+                .contains(current, current.plusMonths(1), current.plusMonths(1 + partitionProperties.getPremakeMonths()));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM document_history WHERE document_id = ?", Long.class, id)).isZero();
+        // Detached, not dropped: the rows stay in a standalone table for archiving
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + DocumentHistoryPartitionRepository.partitionName(old),
+                Long.class)).isEqualTo(1);
+
+        mockMvc.perform(post("/api/documents/submit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"ids": [%d], "initiator": "tester"}
+                                """.formatted(id)))
+                .andExpect(jsonPath("$[0].result").value("success"));
+        mockMvc.perform(get("/api/documents/{id}/history", id))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void batchJobs_finishedPastRetentionPurgedWithItems() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        long expired = batchJobService.create(BatchJobOperation.SUBMIT, ids, "tester").getId();
+        long recent = batchJobService.create(BatchJobOperation.SUBMIT, ids, "tester").getId();
+        long running = batchJobService.create(BatchJobOperation.SUBMIT, ids, "tester").getId();
+        Timestamp longAgo = Timestamp.valueOf(LocalDateTime.now().minusDays(30));
+        jdbcTemplate.update("UPDATE batch_job SET status = 'COMPLETED', finished_at = ? WHERE id = ?", longAgo, expired);
+        jdbcTemplate.update("UPDATE batch_job SET status = 'FAILED', finished_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), recent);
+        jdbcTemplate.update("UPDATE batch_job SET status = 'RUNNING', created_at = ? WHERE id = ?", longAgo, running);
+
+        assertThat(batchJobService.purgeFinished()).isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM batch_job WHERE id IN (?, ?, ?)", Long.class,
+                expired, recent, running)).containsExactlyInAnyOrder(recent, running);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM batch_job_item WHERE job_id = ?", Long.class,
+                expired)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM batch_job_item WHERE job_id = ?", Long.class,
+                recent)).isEqualTo(3);
+    }
+
+    private long createDocument(String author, String title) throws Exception {
+        String body = """
+                {"author": "%s", "title": "%s", "initiator": "tester"}
+                """.formatted(author, title);
+        MvcResult result = mockMvc.perform(post("/api/documents")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    /**
+     * Values for the captured search statement's placeholders, in order: the LIKE pattern, then paging.
+     */
+    private static Object[] searchParameters(String sql, String pattern, int pageSize) {
+        List<Object> parameters = new ArrayList<>();
+        Matcher placeholder = Pattern.compile("(like|offset|first) \\?").matcher(sql);
+        while (placeholder.find()) {
+            parameters.add(switch (placeholder.group(1)) {
+                case "like" -> pattern;
+                case "offset" -> 0;
+                default -> pageSize;
+            });
+        }
+        assertThat(parameters).as(sql).hasSize((int) sql.chars().filter(c -> c == '?').count());
+        return parameters.toArray();
+    }
+
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
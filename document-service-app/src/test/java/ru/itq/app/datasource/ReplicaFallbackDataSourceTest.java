@@ -0,0 +1,68 @@
+package ru.itq.app.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaFallbackDataSourceTest {
+
+    private final Connection replicaConnection = mock(Connection.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private DataSource replica;
+    private ReplicaLagMonitor lagMonitor;
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaFallbackDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        replica = mock(DataSource.class);
+        DataSource primary = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        lagMonitor = mock(ReplicaLagMonitor.class);
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ReplicaFallbackDataSource(replica, primary, lagMonitor, meterRegistry);
+    }
+
+    @Test
+    void usableReplica_servesConnection() throws SQLException {
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+        assertThat(connections("replica")).isEqualTo(1);
+    }
+
+    @Test
+    void unusableReplica_isNotTouched() throws SQLException {
+        when(lagMonitor.isReplicaUsable()).thenReturn(false);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verify(replica, never()).getConnection();
+        assertThat(connections("primary")).isEqualTo(1);
+    }
+
+    @Test
+    void failedReplicaConnection_fallsBackToPrimaryAndMarksReplicaUnavailable() throws SQLException {
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+        when(replica.getConnection()).thenThrow(new SQLException("Connection is not available"));
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verify(lagMonitor).markUnavailable();
+        assertThat(connections("replica")).isZero();
+        assertThat(connections("primary")).isEqualTo(1);
+    }
+
+    private double connections(String target) {
+        return meterRegistry.get("datasource.readonly.connections").tag("target", target).counter().count();
+    }
+}
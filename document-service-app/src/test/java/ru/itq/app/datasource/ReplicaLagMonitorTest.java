@@ -0,0 +1,116 @@
+package ru.itq.app.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaLagMonitorTest {
+
+    private ReplicaProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReplicaProperties();
+        properties.setMaxLag(5000);
+        properties.setLagCheckDelay(60000);
+    }
+
+    @Test
+    void replica_isNotUsedBeforeFirstCheck() throws SQLException {
+        ReplicaLagMonitor monitor = monitor(replicaWithLag(0));
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+    }
+
+    @Test
+    void replica_isUsedWhileLagIsWithinMax() throws SQLException {
+        ReplicaLagMonitor monitor = monitor(replicaWithLag(5000));
+
+        monitor.check();
+
+        assertThat(monitor.isReplicaUsable()).isTrue();
+    }
+
+    @Test
+    void replica_isNotUsedWhenLagExceedsMax() throws SQLException {
+        ReplicaLagMonitor monitor = monitor(replicaWithLag(5001));
+
+        monitor.check();
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+    }
+
+    @Test
+    void failedCheck_makesReplicaUnusable() throws SQLException {
+        DataSource replica = replicaWithLag(0);
+        ReplicaLagMonitor monitor = monitor(replica);
+        monitor.check();
+
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        monitor.check();
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+    }
+
+    @Test
+    void markUnavailable_holdsUntilNextSuccessfulCheck() throws SQLException {
+        ReplicaLagMonitor monitor = monitor(replicaWithLag(0));
+        monitor.check();
+
+        monitor.markUnavailable();
+        assertThat(monitor.isReplicaUsable()).isFalse();
+
+        monitor.check();
+        assertThat(monitor.isReplicaUsable()).isTrue();
+    }
+
+    @Test
+    void staleCheck_makesReplicaUnusable() throws Exception {
+        properties.setLagCheckDelay(20);
+        ReplicaLagMonitor monitor = monitor(replicaWithLag(0));
+        monitor.check();
+
+        // No check for more than STALE_AFTER_CHECKS intervals, as when the scheduler is starved
+        Thread.sleep(ReplicaLagMonitor.STALE_AFTER_CHECKS * 40L);
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        monitor.check();
+        assertThat(monitor.isReplicaUsable()).isTrue();
+    }
+
+    private ReplicaLagMonitor monitor(DataSource replica) {
+        return new ReplicaLagMonitor(replica, properties, new SimpleMeterRegistry());
+    }
+
+    private static DataSource replicaWithLag(long lagMs) throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> lagRow(lagMs));
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenReturn(connection);
+        return replica;
+    }
+
+    private static ResultSet lagRow(long lagMs) throws SQLException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(1);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.getLong(1)).thenReturn(lagMs);
+        return resultSet;
+    }
+}
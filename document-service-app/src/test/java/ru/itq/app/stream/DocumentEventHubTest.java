@@ -0,0 +1,87 @@
+package ru.itq.app.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.itq.core.domain.exception.TooManySubscribersException;
+import ru.itq.core.service.DocumentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class DocumentEventHubTest {
+
+    private static final int MAX_SUBSCRIBERS = 5;
+    private static final DocumentStreamFilter ALL = new DocumentStreamFilter(null, null, null);
+
+    private DocumentEventHub hub;
+
+    @BeforeEach
+    void setUp() {
+        DocumentStreamProperties properties = new DocumentStreamProperties();
+        properties.setMaxSubscribers(MAX_SUBSCRIBERS);
+        properties.setSenderThreads(2);
+        hub = new DocumentEventHub(mock(DocumentService.class), properties, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void concurrentSubscribes_neverExceedLimit() throws Exception {
+        int threads = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        hub.subscribe(ALL, null);
+                    } catch (TooManySubscribersException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(rejected.get()).isEqualTo(threads - MAX_SUBSCRIBERS);
+    }
+
+    @Test
+    void failedSnapshot_releasesSlot() {
+        for (int i = 0; i <= MAX_SUBSCRIBERS; i++) {
+            assertThatThrownBy(() -> hub.subscribe(DocumentStreamFilter.document(1L), () -> {
+                throw new IllegalStateException("snapshot failed");
+            })).isInstanceOf(IllegalStateException.class);
+        }
+
+        for (int i = 0; i < MAX_SUBSCRIBERS; i++) {
+            hub.subscribe(ALL, null);
+        }
+        assertThatThrownBy(() -> hub.subscribe(ALL, null))
+                .isInstanceOf(TooManySubscribersException.class);
+    }
+}
@@ -0,0 +1,117 @@
+package ru.itq.app.worker;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.itq.api.dto.BatchOperationResult;
+import ru.itq.api.dto.DocumentStatus;
+import ru.itq.app.config.WorkerProperties;
+import ru.itq.core.service.DocumentService;
+import ru.itq.core.service.LeaseRenewer;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drain loop of the status workers against a mocked service.
+ */
+class AbstractBatchWorkerTest {
+
+    private DocumentService documentService;
+    private WorkerProperties properties;
+    private final LeaseRenewer leaseRenewer = new LeaseRenewer();
+
+    @BeforeEach
+    void setUp() {
+        documentService = mock(DocumentService.class);
+        properties = new WorkerProperties();
+        properties.setDrain(true);
+        properties.setBatchSize(10);
+        properties.setMinBatchSize(10);
+        properties.setMaxBatchSize(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        leaseRenewer.shutdown();
+    }
+
+    @Test
+    void drain_continuesWhileBatchesAreFull_andStopsOnShortClaim() {
+        when(documentService.claimBatch(eq(DocumentStatus.DRAFT), anyInt(), anyString(), any()))
+                .thenReturn(ids(1, 10), ids(11, 20), ids(21, 25));
+        TestWorker worker = new TestWorker(ids -> ids.stream().map(BatchOperationResult::success).toList());
+
+        worker.runTick();
+
+        assertThat(worker.batches).isEqualTo(3);
+        verify(documentService, times(3)).releaseLease(anyList(), anyString());
+    }
+
+    @Test
+    void drain_stopsWhenNoDocumentOfBatchMoves() {
+        // Failed documents keep their status, are released and would be claimed again at once
+        when(documentService.claimBatch(eq(DocumentStatus.DRAFT), anyInt(), anyString(), any()))
+                .thenReturn(ids(1, 10));
+        TestWorker worker = new TestWorker(ids -> ids.stream()
+                .map(id -> BatchOperationResult.registryError(id, "Registry unavailable"))
+                .toList());
+
+        worker.runTick();
+
+        assertThat(worker.batches).isEqualTo(1);
+    }
+
+    @Test
+    void drain_shrinksBatchWhenDocumentsFail() {
+        properties.setMaxBatchSize(100);
+        when(documentService.claimBatch(eq(DocumentStatus.DRAFT), anyInt(), anyString(), any()))
+                .thenReturn(ids(1, 10), ids(11, 15));
+        TestWorker worker = new TestWorker(ids -> ids.stream()
+                .map(id -> id % 2 == 0
+                        ? BatchOperationResult.success(id)
+                        : BatchOperationResult.registryError(id, "Registry unavailable"))
+                .toList());
+
+        worker.runTick();
+
+        // Half of the first batch failed: the next one is requested at the minimum size, not grown
+        verify(documentService, times(2)).claimBatch(eq(DocumentStatus.DRAFT), eq(10), anyString(), any());
+        assertThat(worker.batches).isEqualTo(2);
+    }
+
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().toList();
+    }
+
+    private class TestWorker extends AbstractBatchWorker {
+
+        private final Function<List<Long>, List<BatchOperationResult>> processor;
+        private int batches;
+
+        TestWorker(Function<List<Long>, List<BatchOperationResult>> processor) {
+            super("TEST-worker", DocumentStatus.DRAFT, AbstractBatchWorkerTest.this.documentService, properties,
+                    leaseRenewer, new SimpleMeterRegistry());
+            this.processor = processor;
+        }
+
+        @Override
+        protected List<BatchOperationResult> process(List<Long> ids, String initiator) {
+            batches++;
+            return processor.apply(ids);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.itq.app.worker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBatchSizerTest {
+
+    private static final long TARGET_MS = 1000;
+
+    @Test
+    void fastFullBatch_growsAtMostTwice() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1000, 100, TARGET_MS);
+
+        sizer.record(100, 100, 0, 10);
+
+        assertThat(sizer.currentSize()).isEqualTo(200);
+    }
+
+    @Test
+    void slowBatch_shrinksTowardsTargetDuration() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1000, 100, TARGET_MS);
+
+        sizer.record(100, 100, 0, 4000);
+
+        assertThat(sizer.currentSize()).isEqualTo(25);
+    }
+
+    @Test
+    void partialBatch_doesNotGrow() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1000, 100, TARGET_MS);
+
+        sizer.record(100, 30, 0, 10);
+
+        assertThat(sizer.currentSize()).isEqualTo(100);
+    }
+
+    @Test
+    void failureRateAboveThreshold_halvesSize() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1000, 100, TARGET_MS);
+
+        sizer.record(100, 100, 11, 10);
+        assertThat(sizer.currentSize()).isEqualTo(50);
+
+        // 10% is still tolerated
+        sizer.record(50, 50, 5, 10);
+        assertThat(sizer.currentSize()).isEqualTo(100);
+    }
+
+    @Test
+    void size_staysWithinBounds() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 150, 100, TARGET_MS);
+
+        sizer.record(100, 100, 0, 10);
+        assertThat(sizer.currentSize()).isEqualTo(150);
+
+        for (int i = 0; i < 10; i++) {
+            sizer.record(sizer.currentSize(), sizer.currentSize(), sizer.currentSize(), 10);
+        }
+        assertThat(sizer.currentSize()).isEqualTo(10);
+    }
+
+    @Test
+    void emptyBatch_isIgnored() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1000, 100, TARGET_MS);
+
+        sizer.record(100, 0, 0, 10);
+
+        assertThat(sizer.currentSize()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.itq.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.itq.api.dto.BatchCreateDocumentRequest;
+import ru.itq.api.dto.BatchOperationResult;
+import ru.itq.core.service.DocumentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DocumentService#submitBatch} and {@link DocumentService#approveBatch} against the embedded
+ * database. Each invocation gets a fresh set of documents in the expected status, created outside
+ * the measured code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchTransitionBenchmark {
+
+    private static final String INITIATOR = "benchmark";
+
+    @Param({"10", "100"})
+    private int batchSize;
+
+    @Param({"per-document", "parallel"})
+    private String batchMode;
+
+    private ConfigurableApplicationContext context;
+    private DocumentService documentService;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("--app.batch.mode=" + batchMode);
+        documentService = context.getBean(DocumentService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BatchOperationResult> submitBatch(Drafts drafts) {
+        return documentService.submitBatch(drafts.ids, INITIATOR);
+    }
+
+    @Benchmark
+    public List<BatchOperationResult> approveBatch(Submitted submitted) {
+        return documentService.approveBatch(submitted.ids, INITIATOR);
+    }
+
+    @State(Scope.Thread)
+    public static class Drafts {
+
+        List<Long> ids;
+
+        @Setup(Level.Invocation)
+        public void create(BatchTransitionBenchmark benchmark) {
+            ids = benchmark.createDrafts();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Submitted {
+
+        List<Long> ids;
+
+        @Setup(Level.Invocation)
+        public void createAndSubmit(BatchTransitionBenchmark benchmark) {
+            ids = benchmark.createDrafts();
+            benchmark.documentService.submitBatch(ids, INITIATOR);
+        }
+    }
+
+    private List<Long> createDrafts() {
+        List<BatchCreateDocumentRequest.Item> items = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            items.add(new BatchCreateDocumentRequest.Item("Benchmark author", "Benchmark document"));
+        }
+        return documentService.createBatch(items, INITIATOR).getIds();
+    }
+}
@@ -0,0 +1,46 @@
+package ru.itq.benchmarks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import ru.itq.core.service.OutboxSink;
+
+/**
+ * Core services on an in-memory H2 database (see application.yml), without web layer and workers.
+ */
+@SpringBootApplication(scanBasePackages = "ru.itq.core")
+@EntityScan(basePackages = "ru.itq.core.domain.entity")
+@EnableJpaRepositories(basePackages = "ru.itq.core.persistence")
+@EnableCaching
+public class BenchmarkApplication {
+
+    /**
+     * Actuator is not on the classpath; metrics are recorded in memory, as in the app.
+     */
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    /**
+     * The sinks live in the app module; the outbox relay is not scheduled here, so events are dropped.
+     */
+    @Bean
+    OutboxSink outboxSink() {
+        return events -> {
+        };
+    }
+
+    static ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+}
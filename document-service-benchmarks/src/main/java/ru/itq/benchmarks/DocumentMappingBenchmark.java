@@ -0,0 +1,42 @@
+package ru.itq.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.itq.api.dto.DocumentResponse;
+import ru.itq.core.domain.entity.Document;
+import ru.itq.core.service.DocumentMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DocumentMapper#toResponse} for one document, as search pages map it; history is read as
+ * DTO projections and only attached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentMappingBenchmark {
+
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        document = Samples.document(1);
+    }
+
+    @Benchmark
+    public DocumentResponse toResponse() {
+        return DocumentMapper.toResponse(document, null);
+    }
+}
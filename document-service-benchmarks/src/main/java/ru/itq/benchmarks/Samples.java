@@ -0,0 +1,30 @@
+package ru.itq.benchmarks;
+
+import ru.itq.api.dto.DocumentStatus;
+import ru.itq.core.domain.entity.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Detached entities shaped like production rows.
+ */
+final class Samples {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private Samples() {
+    }
+
+    static Document document(long id) {
+        return Document.builder()
+                .id(id)
+                .documentNumber(String.format("DOC-%07d", id))
+                .author("Author " + id % 100)
+                .title("Benchmark document #" + id)
+                .status(DocumentStatus.SUBMITTED)
+                .version(1L)
+                .createdAt(CREATED_AT.plusSeconds(id))
+                .updatedAt(CREATED_AT.plusSeconds(id + 60))
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.itq.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+import ru.itq.api.dto.DocumentStatus;
+import ru.itq.core.domain.entity.Document;
+import ru.itq.core.persistence.DocumentSpecifications;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the /search criteria query from {@link DocumentSpecifications}, up to the point where
+ * Hibernate has a query ready to execute. The database is not hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchQueryBenchmark {
+
+    private static final LocalDateTime DATE_FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime DATE_TO = LocalDateTime.of(2024, 12, 31, 0, 0);
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Specification<Document> composeSpecification() {
+        return searchSpecification();
+    }
+
+    @Benchmark
+    public TypedQuery<Document> buildQuery() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Document> query = cb.createQuery(Document.class);
+        Root<Document> root = query.from(Document.class);
+        query.where(searchSpecification().toPredicate(root, query, cb))
+                .orderBy(cb.desc(root.get("createdAt")));
+        return entityManager.createQuery(query).setMaxResults(20);
+    }
+
+    private static Specification<Document> searchSpecification() {
+        return Specification
+                .where(DocumentSpecifications.hasStatus(DocumentStatus.SUBMITTED))
+                .and(DocumentSpecifications.hasAuthor("Author 4_2%"))
+                .and(DocumentSpecifications.createdAfter(DATE_FROM))
+                .and(DocumentSpecifications.createdBefore(DATE_TO));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.itq.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itq.api.dto.BatchCreateDocumentRequest;
+import ru.itq.api.dto.DocumentResponse;
+import ru.itq.api.dto.DocumentStatus;
+import ru.itq.core.domain.entity.Document;
+import ru.itq.core.persistence.DocumentProjectionRepository;
+import ru.itq.core.persistence.DocumentRepository;
+import ru.itq.core.persistence.DocumentSpecifications;
+import ru.itq.core.service.DocumentMapper;
+import ru.itq.core.service.DocumentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One search page read in a read-only transaction, as {@link DocumentService#search} does it, against
+ * the embedded database: managed entities copied by {@link DocumentMapper} versus the
+ * {@link DocumentProjectionRepository} constructor projection. Run with {@code -prof gc} to compare
+ * allocation per page ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchReadPathBenchmark {
+
+    private static final int DOCUMENTS = 1000;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTx;
+    private DocumentRepository documentRepository;
+    private DocumentProjectionRepository documentProjectionRepository;
+    private Specification<Document> spec;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start();
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        documentRepository = context.getBean(DocumentRepository.class);
+        documentProjectionRepository = context.getBean(DocumentProjectionRepository.class);
+
+        List<BatchCreateDocumentRequest.Item> items = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            items.add(new BatchCreateDocumentRequest.Item("Author " + i % 100, "Benchmark document #" + i));
+        }
+        context.getBean(DocumentService.class).createBatch(items, "benchmark");
+
+        spec = Specification.where(DocumentSpecifications.hasStatus(DocumentStatus.DRAFT));
+        // Primary key order keeps the embedded database's share of the time small; more rows than
+        // one page, so both variants also run the count query
+        pageable = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "id"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<DocumentResponse> entities() {
+        return readOnlyTx.execute(status -> documentRepository.findAll(spec, pageable)
+                .map(doc -> DocumentMapper.toResponse(doc, null)));
+    }
+
+    @Benchmark
+    public Page<DocumentResponse> projection() {
+        return readOnlyTx.execute(status -> documentProjectionRepository.findPage(spec, pageable));
+    }
+}
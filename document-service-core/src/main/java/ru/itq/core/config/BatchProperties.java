@@ -0,0 +1,38 @@
+package ru.itq.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.batch")
+public class BatchProperties {
+
+    private Mode mode = Mode.PER_DOCUMENT;
+
+    /**
+     * Max documents processed concurrently in PARALLEL mode; 0 derives it from the connection pool size.
+     */
+    private int parallelism = 0;
+
+    /**
+     * Pool connections left free for other traffic when parallelism is derived from the pool size.
+     */
+    private int reservedConnections = 4;
+
+    public enum Mode {
+        /**
+         * One REQUIRES_NEW transaction per id.
+         */
+        PER_DOCUMENT,
+        /**
+         * One REQUIRES_NEW transaction per id, fanned out over virtual threads.
+         */
+        PARALLEL,
+        /**
+         * Set-based statements for the whole batch (PostgreSQL only).
+         */
+        BULK
+    }
+}
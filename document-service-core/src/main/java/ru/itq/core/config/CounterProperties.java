@@ -0,0 +1,21 @@
+package ru.itq.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.counters")
+public class CounterProperties {
+
+    /**
+     * Counter rows per status; more stripes mean less row-lock contention between concurrent transitions.
+     */
+    private int stripes = 16;
+
+    /**
+     * Delay between reconciliation runs that correct counter drift against COUNT(*), ms.
+     */
+    private long reconcileDelay = 600000;
+}
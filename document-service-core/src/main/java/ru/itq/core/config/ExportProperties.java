@@ -0,0 +1,21 @@
+package ru.itq.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+
+    /**
+     * Rows fetched from the database cursor per round trip; bounds the memory an export holds at once.
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * Longest an export response may take to write, ms; set on the export request only. 0 = no limit.
+     */
+    private long timeout = 3600000;
+}
@@ -0,0 +1,41 @@
+package ru.itq.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.history.partitions")
+public class HistoryPartitionProperties {
+
+    /**
+     * Run partition maintenance; needs the monthly partitioned document_history (PostgreSQL).
+     */
+    private boolean enabled = false;
+
+    /**
+     * Months after the current one that must already have a partition.
+     */
+    private int premakeMonths = 3;
+
+    /**
+     * Months of history kept before the current one; older partitions are removed. 0 keeps everything.
+     */
+    private int retentionMonths = 0;
+
+    private RetentionAction retentionAction = RetentionAction.DETACH;
+
+    /**
+     * Delay between maintenance runs, ms. The first run happens at startup.
+     */
+    private long maintenanceDelay = 3600000;
+
+    public enum RetentionAction {
+        /**
+         * Detach the partition and keep it as a standalone table, e.g. to archive it with pg_dump.
+         */
+        DETACH,
+        DROP
+    }
+}
@@ -0,0 +1,46 @@
+package ru.itq.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.jobs")
+public class JobProperties {
+
+    /**
+     * Ids processed and checkpointed together; a crash repeats at most one chunk.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Jobs run concurrently by one instance.
+     */
+    private int concurrency = 2;
+
+    /**
+     * Delay between polls for unclaimed jobs, ms.
+     */
+    private long pollDelay = 1000;
+
+    /**
+     * How long a claimed job stays reserved for this node; renewed while a chunk runs, ms.
+     */
+    private long leaseDuration = 60000;
+
+    /**
+     * How long completed and failed jobs, with their results, are kept before cleanup, ms.
+     */
+    private long retention = 604800000;
+
+    /**
+     * Delay between purges of expired jobs, ms. The first purge happens at startup.
+     */
+    private long cleanupDelay = 3600000;
+
+    /**
+     * Jobs deleted per statement by the purge; each takes up to 200000 result rows with it.
+     */
+    private int cleanupBatchSize = 10;
+}
@@ -0,0 +1,16 @@
+package ru.itq.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.metrics")
+public class MetricsProperties {
+
+    /**
+     * Delay between refreshes of the backlog size and age gauges, ms.
+     */
+    private long backlogRefreshDelay = 15000;
+}
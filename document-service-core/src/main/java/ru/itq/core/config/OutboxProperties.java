@@ -0,0 +1,40 @@
+package ru.itq.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    /**
+     * Run the relay on this node. Events are written to the outbox either way.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Events handed to the sink at once.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Delay between relay runs, ms. A run keeps going while batches come back full.
+     */
+    private long pollDelay = 1000;
+
+    /**
+     * Wait before retrying a failed batch, ms; doubled with every failed attempt up to maxRetryDelay.
+     */
+    private long retryDelay = 5000;
+    private long maxRetryDelay = 300000;
+
+    /**
+     * How long delivered events are kept before cleanup, ms.
+     */
+    private long retention = 3600000;
+
+    private long cleanupDelay = 600000;
+    private int cleanupBatchSize = 1000;
+}
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class ApprovalRegistry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "approval_registry_seq")
+    @SequenceGenerator(name = "approval_registry_seq", sequenceName = "approval_registry_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "document_id", nullable = false, unique = true)
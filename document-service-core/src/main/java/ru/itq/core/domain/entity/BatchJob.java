@@ -0,0 +1,82 @@
+package ru.itq.core.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.itq.api.dto.BatchJobOperation;
+import ru.itq.api.dto.BatchJobStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Asynchronous submit/approve of a list of ids, stored as {@link BatchJobItem}s. {@code processed}
+ * is the checkpoint: items before it have committed results, processing resumes from it.
+ * Progress and lease are changed only by the repository's update queries.
+ */
+@Entity
+@Table(name = "batch_job")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "batch_job_seq")
+    @SequenceGenerator(name = "batch_job_seq", sequenceName = "batch_job_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BatchJobOperation operation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BatchJobStatus status;
+
+    @Column(nullable = false)
+    private String initiator;
+
+    @Column(nullable = false)
+    private int total;
+
+    @Column(nullable = false)
+    private int processed;
+
+    @Column(name = "success_count", nullable = false)
+    private int successCount;
+
+    @Column(name = "conflict_count", nullable = false)
+    private int conflictCount;
+
+    @Column(name = "not_found_count", nullable = false)
+    private int notFoundCount;
+
+    @Column(name = "registry_error_count", nullable = false)
+    private int registryErrorCount;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "lease_owner", length = 128, insertable = false, updatable = false)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at", insertable = false, updatable = false)
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+}
@@ -0,0 +1,47 @@
+package ru.itq.core.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One id of a {@link BatchJob} at its position in the request; {@code result} is null until
+ * the chunk containing it is checkpointed. Written with JDBC batches by
+ * {@link ru.itq.core.persistence.BatchJobItemBulkRepository}.
+ */
+@Entity
+@Table(name = "batch_job_item")
+@IdClass(BatchJobItem.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchJobItem {
+
+    @Id
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Id
+    @Column(name = "seq", nullable = false)
+    private int seq;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Column(length = 20)
+    private String result;
+
+    @Column(length = 1000)
+    private String message;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long jobId;
+        private int seq;
+    }
+}
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class DocumentHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_history_seq")
+    @SequenceGenerator(name = "document_history_seq", sequenceName = "document_history_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "document_id", nullable = false)
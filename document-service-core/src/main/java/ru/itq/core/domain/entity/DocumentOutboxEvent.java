@@ -0,0 +1,59 @@
+package ru.itq.core.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.itq.api.dto.DocumentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status change written in the transaction that made it and published later by the outbox relay.
+ * {@code deliveredAt} is set once a sink accepted the event; failed deliveries are retried from
+ * {@code nextAttemptAt}.
+ */
+@Entity
+@Table(name = "document_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_outbox_seq")
+    @SequenceGenerator(name = "document_outbox_seq", sequenceName = "document_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DocumentStatus status;
+
+    @Column(name = "performed_by", nullable = false)
+    private String performedBy;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.itq.core.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.itq.api.dto.DocumentStatus;
+
+import java.io.Serializable;
+
+/**
+ * One stripe of the per-status document counter. The count for a status is the sum of
+ * its stripes; writers pick a random stripe so concurrent transitions rarely touch the same row.
+ */
+@Entity
+@Table(name = "document_status_counter")
+@IdClass(DocumentStatusCounter.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentStatusCounter {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private DocumentStatus status;
+
+    @Id
+    @Column(name = "stripe", nullable = false)
+    private int stripe;
+
+    @Column(name = "cnt", nullable = false)
+    private long cnt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private DocumentStatus status;
+        private int stripe;
+    }
+}
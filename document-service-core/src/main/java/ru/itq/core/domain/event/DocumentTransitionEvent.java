@@ -0,0 +1,12 @@
+package ru.itq.core.domain.event;
+
+import ru.itq.api.dto.DocumentStatus;
+
+import java.util.Collection;
+
+/**
+ * Published inside the transaction that moved {@code documentIds} to {@code status};
+ * listeners bound to the commit phase see it only if that transaction commits.
+ */
+public record DocumentTransitionEvent(Collection<Long> documentIds, DocumentStatus status, String performedBy) {
+}
@@ -0,0 +1,8 @@
+package ru.itq.core.domain.exception;
+
+public class BatchJobNotFoundException extends RuntimeException {
+
+    public BatchJobNotFoundException(Long id) {
+        super("Batch job not found: id=" + id);
+    }
+}
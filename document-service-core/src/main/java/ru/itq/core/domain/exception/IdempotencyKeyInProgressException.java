@@ -0,0 +1,8 @@
+package ru.itq.core.domain.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String key) {
+        super("A request with this Idempotency-Key is still in progress: " + key);
+    }
+}
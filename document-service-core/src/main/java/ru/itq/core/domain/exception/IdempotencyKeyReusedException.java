@@ -0,0 +1,8 @@
+package ru.itq.core.domain.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency-Key was already used with a different request: " + key);
+    }
+}
@@ -0,0 +1,8 @@
+package ru.itq.core.domain.exception;
+
+public class TooManySubscribersException extends RuntimeException {
+
+    public TooManySubscribersException(int limit) {
+        super("Document event stream subscriber limit reached: " + limit);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.itq.core.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.itq.api.dto.BatchOperationResult;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * JDBC-batched writes of batch job items: a job can carry hundreds of thousands of ids.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BatchJobItemBulkRepository {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stores {@code documentIds} as the job's items at positions 0..n-1.
+     */
+    public void insertItems(long jobId, List<Long> documentIds) {
+        jdbcTemplate.batchUpdate("INSERT INTO batch_job_item (job_id, seq, document_id) VALUES (?, ?, ?)",
+                IntStream.range(0, documentIds.size()).boxed().toList(), BATCH_SIZE, (ps, seq) -> {
+                    ps.setLong(1, jobId);
+                    ps.setInt(2, seq);
+                    ps.setLong(3, documentIds.get(seq));
+                });
+    }
+
+    /**
+     * Stores {@code results} for the items starting at position {@code from}.
+     */
+    public void saveResults(long jobId, int from, List<BatchOperationResult> results) {
+        jdbcTemplate.batchUpdate("UPDATE batch_job_item SET result = ?, message = ? WHERE job_id = ? AND seq = ?",
+                IntStream.range(0, results.size()).boxed().toList(), BATCH_SIZE, (ps, i) -> {
+                    BatchOperationResult result = results.get(i);
+                    String message = result.getMessage();
+                    ps.setString(1, result.getResult());
+                    ps.setString(2, message == null || message.length() <= MAX_MESSAGE_LENGTH
+                            ? message : message.substring(0, MAX_MESSAGE_LENGTH));
+                    ps.setLong(3, jobId);
+                    ps.setInt(4, from + i);
+                });
+    }
+}
@@ -0,0 +1,38 @@
+package ru.itq.core.persistence;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.itq.api.dto.BatchOperationResult;
+import ru.itq.core.domain.entity.BatchJobItem;
+
+import java.util.List;
+
+@Repository
+public interface BatchJobItemRepository extends JpaRepository<BatchJobItem, BatchJobItem.Key> {
+
+    /**
+     * Document ids at positions [from, to) of the job, in request order.
+     */
+    @Query("""
+            SELECT i.documentId FROM BatchJobItem i
+            WHERE i.jobId = :jobId AND i.seq >= :from AND i.seq < :to
+            ORDER BY i.seq
+            """)
+    List<Long> findDocumentIds(@Param("jobId") Long jobId, @Param("from") int from, @Param("to") int to);
+
+    /**
+     * Committed results in request order; the pageable must be unsorted.
+     */
+    @Query(value = """
+            SELECT new ru.itq.api.dto.BatchOperationResult(i.documentId, i.result, i.message)
+            FROM BatchJobItem i
+            WHERE i.jobId = :jobId AND i.result IS NOT NULL
+            ORDER BY i.seq
+            """,
+            countQuery = "SELECT COUNT(i) FROM BatchJobItem i WHERE i.jobId = :jobId AND i.result IS NOT NULL")
+    Page<BatchOperationResult> findResults(@Param("jobId") Long jobId, Pageable pageable);
+}
@@ -0,0 +1,97 @@
+package ru.itq.core.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.itq.api.dto.BatchJobStatus;
+import ru.itq.core.domain.entity.BatchJob;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BatchJobRepository extends JpaRepository<BatchJob, Long> {
+
+    /**
+     * The oldest unfinished job whose lease is free or expired, e.g. left by a stopped node.
+     * Must run in the same transaction as {@link #assignLease}.
+     */
+    @Query(value = """
+            SELECT id FROM batch_job
+            WHERE status IN ('PENDING', 'RUNNING')
+              AND (lease_expires_at IS NULL OR lease_expires_at < :now)
+            ORDER BY id
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    Optional<Long> findClaimableId(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+            UPDATE BatchJob j
+            SET j.status = ru.itq.api.dto.BatchJobStatus.RUNNING, j.leaseOwner = :owner,
+                j.leaseExpiresAt = :expiresAt, j.updatedAt = :now
+            WHERE j.id = :id
+            """)
+    int assignLease(@Param("id") Long id, @Param("owner") String owner,
+                    @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    /**
+     * Adds one chunk's result counts, moves the checkpoint past it and renews the lease. Matches
+     * nothing if {@code owner} lost the lease or the checkpoint is no longer at {@code from}.
+     */
+    @Modifying
+    @Query("""
+            UPDATE BatchJob j
+            SET j.processed = j.processed + :count,
+                j.successCount = j.successCount + :success,
+                j.conflictCount = j.conflictCount + :conflict,
+                j.notFoundCount = j.notFoundCount + :notFound,
+                j.registryErrorCount = j.registryErrorCount + :registryError,
+                j.leaseExpiresAt = :expiresAt, j.updatedAt = :now
+            WHERE j.id = :id AND j.leaseOwner = :owner AND j.processed = :from
+            """)
+    int checkpoint(@Param("id") Long id, @Param("owner") String owner, @Param("from") int from,
+                   @Param("count") int count, @Param("success") int success, @Param("conflict") int conflict,
+                   @Param("notFound") int notFound, @Param("registryError") int registryError,
+                   @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    /**
+     * Extends the lease while a chunk runs; matches nothing once {@code owner} lost it.
+     */
+    @Modifying
+    @Query("UPDATE BatchJob j SET j.leaseExpiresAt = :expiresAt WHERE j.id = :id AND j.leaseOwner = :owner")
+    int renewLease(@Param("id") Long id, @Param("owner") String owner, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("""
+            UPDATE BatchJob j
+            SET j.status = :status, j.error = :error, j.finishedAt = :now, j.updatedAt = :now,
+                j.leaseOwner = NULL, j.leaseExpiresAt = NULL
+            WHERE j.id = :id AND j.leaseOwner = :owner
+            """)
+    int finish(@Param("id") Long id, @Param("owner") String owner, @Param("status") BatchJobStatus status,
+               @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+            UPDATE BatchJob j SET j.leaseOwner = NULL, j.leaseExpiresAt = NULL
+            WHERE j.id = :id AND j.leaseOwner = :owner
+            """)
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner);
+
+    /**
+     * Deletes up to {@code limit} jobs that finished before {@code before}; their items go with
+     * them through {@code ON DELETE CASCADE}.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM batch_job WHERE id IN (
+                SELECT id FROM batch_job
+                WHERE status IN ('COMPLETED', 'FAILED') AND finished_at < :before
+                LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteFinished(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
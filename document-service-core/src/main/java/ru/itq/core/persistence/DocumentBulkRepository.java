@@ -0,0 +1,157 @@
+package ru.itq.core.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.itq.api.dto.DocumentStatus;
+import ru.itq.api.dto.HistoryAction;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based statements for batch transitions. Ids are passed as a single
+ * array parameter, so each call is one round trip regardless of batch size.
+ * Uses PostgreSQL syntax (UPDATE ... RETURNING, ON CONFLICT, = ANY, unnest).
+ */
+@Repository
+@RequiredArgsConstructor
+public class DocumentBulkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Moves every document from {@code ids} that is currently in {@code from} to {@code to}.
+     *
+     * @return ids of the documents that were actually moved
+     */
+    public List<Long> transitionStatus(Collection<Long> ids, DocumentStatus from, DocumentStatus to,
+                                       LocalDateTime now) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    UPDATE document
+                    SET status = ?, version = version + 1, updated_at = ?
+                    WHERE id = ANY (?) AND status = ?
+                    RETURNING id
+                    """);
+            ps.setString(1, to.name());
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            ps.setArray(3, con.createArrayOf("bigint", ids.toArray()));
+            ps.setString(4, from.name());
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    /**
+     * Moves SUBMITTED documents to APPROVED, skipping those that already have an
+     * approval registry entry (they are reported as registry errors by the caller).
+     *
+     * @return ids of the documents that were actually moved
+     */
+    public List<Long> approveSubmitted(Collection<Long> ids, LocalDateTime now) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    UPDATE document d
+                    SET status = ?, version = d.version + 1, updated_at = ?
+                    WHERE d.id = ANY (?) AND d.status = ?
+                      AND NOT EXISTS (SELECT 1 FROM approval_registry r WHERE r.document_id = d.id)
+                    RETURNING d.id
+                    """);
+            ps.setString(1, DocumentStatus.APPROVED.name());
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            ps.setArray(3, con.createArrayOf("bigint", ids.toArray()));
+            ps.setString(4, DocumentStatus.SUBMITTED.name());
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    public int insertHistory(Collection<Long> documentIds, HistoryAction action, String performedBy,
+                             String comment, LocalDateTime now) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    INSERT INTO document_history (document_id, performed_by, action, comment, created_at)
+                    SELECT unnest(?), ?, ?, ?, ?
+                    """);
+            ps.setArray(1, con.createArrayOf("bigint", documentIds.toArray()));
+            ps.setString(2, performedBy);
+            ps.setString(3, action.name());
+            ps.setString(4, comment);
+            ps.setTimestamp(5, Timestamp.valueOf(now));
+            return ps;
+        });
+    }
+
+    /**
+     * Writes one outbox event per document; ids come from the column default.
+     */
+    public int insertOutboxEvents(Collection<Long> documentIds, DocumentStatus status, String performedBy,
+                                  LocalDateTime now) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    INSERT INTO document_outbox (document_id, status, performed_by, created_at, attempts)
+                    SELECT unnest(?), ?, ?, ?, 0
+                    """);
+            ps.setArray(1, con.createArrayOf("bigint", documentIds.toArray()));
+            ps.setString(2, status.name());
+            ps.setString(3, performedBy);
+            ps.setTimestamp(4, Timestamp.valueOf(now));
+            return ps;
+        });
+    }
+
+    /**
+     * Inserts registry entries, silently skipping documents that already have one.
+     *
+     * @return ids of the documents whose entry was actually inserted
+     */
+    public List<Long> insertApprovalRegistryEntries(Collection<Long> documentIds, String approvedBy,
+                                                    LocalDateTime approvedAt) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    INSERT INTO approval_registry (document_id, approved_by, approved_at)
+                    SELECT unnest(?), ?, ?
+                    ON CONFLICT (document_id) DO NOTHING
+                    RETURNING document_id
+                    """);
+            ps.setArray(1, con.createArrayOf("bigint", documentIds.toArray()));
+            ps.setString(2, approvedBy);
+            ps.setTimestamp(3, Timestamp.valueOf(approvedAt));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    /**
+     * Ids that already have an approval registry entry.
+     */
+    public Set<Long> findRegisteredDocumentIds(Collection<Long> ids) {
+        Set<Long> registered = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT document_id FROM approval_registry WHERE document_id = ANY (?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, rs -> {
+            registered.add(rs.getLong(1));
+        });
+        return registered;
+    }
+
+    public Map<Long, DocumentStatus> findStatuses(Collection<Long> ids) {
+        Map<Long, DocumentStatus> statuses = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, status FROM document WHERE id = ANY (?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, rs -> {
+            statuses.put(rs.getLong("id"), DocumentStatus.valueOf(rs.getString("status")));
+        });
+        return statuses;
+    }
+}
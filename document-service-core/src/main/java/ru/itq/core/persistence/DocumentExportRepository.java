@@ -0,0 +1,80 @@
+package ru.itq.core.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.itq.api.dto.DocumentResponse;
+import ru.itq.api.dto.DocumentStatus;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Streams search results for export through a forward-only, read-only JDBC cursor: rows are
+ * fetched {@code fetchSize} at a time and handed to the consumer one by one, never collected.
+ * Filters match {@link DocumentSpecifications}; rows come in (created_at DESC, id DESC) order.
+ * <p>
+ * PostgreSQL only uses a server-side cursor with autocommit off, so callers must run inside
+ * a (read-only) transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DocumentExportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void stream(DocumentStatus status, String author, LocalDateTime dateFrom, LocalDateTime dateTo,
+                       int fetchSize, Consumer<DocumentResponse> sink) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, document_number, author, title, status, version, created_at, updated_at
+                FROM document
+                WHERE 1 = 1
+                """);
+        List<Object> params = new ArrayList<>();
+        if (status != null) {
+            sql.append(" AND status = ?");
+            params.add(status.name());
+        }
+        if (author != null && !author.isBlank()) {
+            sql.append(" AND lower(author) LIKE ? ESCAPE '")
+                    .append(DocumentSpecifications.LIKE_ESCAPE).append("'");
+            params.add("%" + DocumentSpecifications.escapeLike(author.toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (dateFrom != null) {
+            sql.append(" AND created_at >= ?");
+            params.add(Timestamp.valueOf(dateFrom));
+        }
+        if (dateTo != null) {
+            sql.append(" AND created_at <= ?");
+            params.add(Timestamp.valueOf(dateTo));
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC");
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, rs -> {
+            sink.accept(DocumentResponse.builder()
+                    .id(rs.getLong("id"))
+                    .documentNumber(rs.getString("document_number"))
+                    .author(rs.getString("author"))
+                    .title(rs.getString("title"))
+                    .status(DocumentStatus.valueOf(rs.getString("status")))
+                    .version(rs.getLong("version"))
+                    .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                    .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                    .build());
+        });
+    }
+}
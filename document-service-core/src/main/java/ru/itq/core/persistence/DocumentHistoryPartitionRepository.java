@@ -0,0 +1,72 @@
+package ru.itq.core.persistence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * DDL for the monthly partitions of {@code document_history} (PostgreSQL). A partition is named
+ * {@code document_history_pYYYYMM} and covers [first day of the month, first day of the next month).
+ * Partitions named otherwise are left alone.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DocumentHistoryPartitionRepository {
+
+    private static final String PREFIX = "document_history_p";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern NAME = Pattern.compile(PREFIX + "\\d{6}");
+
+    /**
+     * Key of the transaction-scoped advisory lock taken around maintenance.
+     */
+    private static final long LOCK_KEY = 0x646f635f68697374L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public static String partitionName(YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+
+    /**
+     * Waits for other instances' maintenance; released when the current transaction ends.
+     */
+    public void lock() {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, LOCK_KEY);
+    }
+
+    /**
+     * Months of the attached partitions, ascending.
+     */
+    public List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname
+                        FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = 'document_history'::regclass
+                        ORDER BY c.relname
+                        """, String.class).stream()
+                .filter(name -> NAME.matcher(name).matches())
+                .map(name -> YearMonth.parse(name.substring(PREFIX.length()), SUFFIX))
+                .toList();
+    }
+
+    public void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                + " PARTITION OF document_history FOR VALUES FROM ('" + month.atDay(1)
+                + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    public void detachPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE document_history DETACH PARTITION " + partitionName(month));
+    }
+
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE " + partitionName(month));
+    }
+}
@@ -1,13 +1,48 @@
 package ru.itq.core.persistence;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.itq.api.dto.DocumentHistoryResponse;
 import ru.itq.core.domain.entity.DocumentHistory;
 
+import java.util.Collection;
 import java.util.List;
 
+/**
+ * Reads return {@link DocumentHistoryResponse} projections: history rows are never modified
+ * after insert, so there is no point in loading them as managed entities.
+ */
 @Repository
 public interface DocumentHistoryRepository extends JpaRepository<DocumentHistory, Long> {
 
-    List<DocumentHistory> findByDocumentIdOrderByCreatedAtAsc(Long documentId);
+    @Query("""
+            SELECT new ru.itq.api.dto.DocumentHistoryResponse(h.id, h.documentId, h.performedBy, h.action, h.comment, h.createdAt)
+            FROM DocumentHistory h
+            WHERE h.documentId = :documentId
+            ORDER BY h.createdAt ASC, h.id ASC
+            """)
+    List<DocumentHistoryResponse> findResponsesByDocumentId(@Param("documentId") Long documentId);
+
+    @Query(value = """
+            SELECT new ru.itq.api.dto.DocumentHistoryResponse(h.id, h.documentId, h.performedBy, h.action, h.comment, h.createdAt)
+            FROM DocumentHistory h
+            WHERE h.documentId = :documentId
+            """,
+            countQuery = "SELECT COUNT(h) FROM DocumentHistory h WHERE h.documentId = :documentId")
+    Page<DocumentHistoryResponse> findResponsesByDocumentId(@Param("documentId") Long documentId, Pageable pageable);
+
+    /**
+     * History of several documents in one query, ordered by document and then chronologically.
+     */
+    @Query("""
+            SELECT new ru.itq.api.dto.DocumentHistoryResponse(h.id, h.documentId, h.performedBy, h.action, h.comment, h.createdAt)
+            FROM DocumentHistory h
+            WHERE h.documentId IN :documentIds
+            ORDER BY h.documentId, h.createdAt ASC, h.id ASC
+            """)
+    List<DocumentHistoryResponse> findResponsesByDocumentIdIn(@Param("documentIds") Collection<Long> documentIds);
 }
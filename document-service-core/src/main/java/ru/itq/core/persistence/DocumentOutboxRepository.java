@@ -0,0 +1,50 @@
+package ru.itq.core.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.itq.core.domain.entity.DocumentOutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DocumentOutboxRepository extends JpaRepository<DocumentOutboxEvent, Long> {
+
+    /**
+     * Undelivered events due for an attempt, oldest first, locked until the transaction ends;
+     * rows locked by another relay are skipped.
+     */
+    @Query(value = """
+            SELECT * FROM document_outbox
+            WHERE delivered_at IS NULL
+              AND (next_attempt_at IS NULL OR next_attempt_at <= :now)
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<DocumentOutboxEvent> findDueForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE DocumentOutboxEvent e SET e.deliveredAt = :now, e.lastError = NULL WHERE e.id IN :ids")
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+            UPDATE DocumentOutboxEvent e
+            SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error
+            WHERE e.id IN :ids
+            """)
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM document_outbox WHERE id IN (
+                SELECT id FROM document_outbox WHERE delivered_at < :before LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteDelivered(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -0,0 +1,86 @@
+package ru.itq.core.persistence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import ru.itq.api.dto.DocumentResponse;
+import ru.itq.core.domain.entity.Document;
+
+import java.util.List;
+
+/**
+ * Read-only listing that selects document columns straight into {@link DocumentResponse} with a
+ * criteria constructor expression: no entities are hydrated, put into the persistence context or
+ * snapshotted for dirty checking. Takes the same {@link Specification}s and sort properties as
+ * {@link DocumentRepository}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DocumentProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Like {@code findAll(spec, pageable)}: the count query runs only when the page does not tell the total.
+     */
+    public Page<DocumentResponse> findPage(Specification<Document> spec, Pageable pageable) {
+        TypedQuery<DocumentResponse> query = select(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    public List<DocumentResponse> findList(Specification<Document> spec, Sort sort, int limit) {
+        return select(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    private TypedQuery<DocumentResponse> select(Specification<Document> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DocumentResponse> query = cb.createQuery(DocumentResponse.class);
+        Root<Document> root = query.from(Document.class);
+        query.select(cb.construct(DocumentResponse.class,
+                root.get("id"),
+                root.get("documentNumber"),
+                root.get("author"),
+                root.get("title"),
+                root.get("status"),
+                root.get("version"),
+                root.get("createdAt"),
+                root.get("updatedAt")));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Document> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Document> root = query.from(Document.class);
+        query.select(cb.count(root));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
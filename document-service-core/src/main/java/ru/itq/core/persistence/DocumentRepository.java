@@ -1,35 +1,85 @@
 package ru.itq.core.persistence;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.itq.api.dto.DocumentStatus;
 import ru.itq.core.domain.entity.Document;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSpecificationExecutor<Document> {
 
     List<Document> findAllByIdIn(List<Long> ids);
 
-    Page<Document> findAllByIdIn(List<Long> ids, Pageable pageable);
+    @Query("SELECT d.version FROM Document d WHERE d.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Rows of [id, author].
+     */
+    @Query("SELECT d.id, d.author FROM Document d WHERE d.id IN :ids")
+    List<Object[]> findAuthorsByIdIn(@Param("ids") Collection<Long> ids);
 
     @Query(value = "SELECT nextval('document_number_seq')", nativeQuery = true)
     Long getNextDocumentNumber();
 
+    /**
+     * Reserves {@code count} document numbers in one round trip.
+     */
+    @Query(value = "SELECT nextval('document_number_seq') FROM generate_series(1, :count)", nativeQuery = true)
+    List<Long> getNextDocumentNumbers(@Param("count") int count);
+
+    long countByStatus(DocumentStatus status);
+
+    /**
+     * Rows of [status, document count].
+     */
+    @Query("SELECT d.status, COUNT(d) FROM Document d GROUP BY d.status")
+    List<Object[]> countGroupedByStatus();
+
+    @Query("SELECT MIN(d.createdAt) FROM Document d WHERE d.status = :status")
+    Optional<LocalDateTime> findOldestCreatedAt(@Param("status") DocumentStatus status);
+
+    /**
+     * Locks up to {@code limit} documents in {@code status} whose lease is free or expired.
+     * Must run in the same transaction as {@link #assignLease}.
+     */
     @Query(value = """
-            SELECT * FROM document
+            SELECT id FROM document
             WHERE status = :status
+              AND (lease_expires_at IS NULL OR lease_expires_at < :now)
             ORDER BY created_at ASC
             LIMIT :limit
             FOR UPDATE SKIP LOCKED
             """, nativeQuery = true)
-    List<Document> findBatchForProcessing(@Param("status") String status, @Param("limit") int limit);
+    List<Long> findClaimableIds(@Param("status") String status, @Param("now") LocalDateTime now,
+                                @Param("limit") int limit);
 
-    long countByStatus(DocumentStatus status);
+    @Modifying
+    @Query("UPDATE Document d SET d.leaseOwner = :owner, d.leaseExpiresAt = :expiresAt WHERE d.id IN :ids")
+    int assignLease(@Param("ids") List<Long> ids, @Param("owner") String owner,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("""
+            UPDATE Document d SET d.leaseExpiresAt = :expiresAt
+            WHERE d.id IN :ids AND d.leaseOwner = :owner
+            """)
+    int renewLease(@Param("ids") List<Long> ids, @Param("owner") String owner,
+                   @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("""
+            UPDATE Document d SET d.leaseOwner = NULL, d.leaseExpiresAt = NULL
+            WHERE d.id IN :ids AND d.leaseOwner = :owner
+            """)
+    int releaseLease(@Param("ids") List<Long> ids, @Param("owner") String owner);
 }
@@ -5,20 +5,34 @@ import ru.itq.api.dto.DocumentStatus;
 import ru.itq.core.domain.entity.Document;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 
 public final class DocumentSpecifications {
 
+    static final char LIKE_ESCAPE = '\\';
+
     private DocumentSpecifications() {
     }
 
+    public static Specification<Document> idIn(List<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
     public static Specification<Document> hasStatus(DocumentStatus status) {
         return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
     }
 
+    /**
+     * Case-insensitive substring match on {@code lower(author)}, the expression the trigram
+     * index {@code idx_document_author_trgm} is built on. LIKE wildcards in the input are
+     * matched literally.
+     */
     public static Specification<Document> hasAuthor(String author) {
         return (root, query, cb) -> author == null || author.isBlank()
                 ? null
-                : cb.like(cb.lower(root.get("author")), "%" + author.toLowerCase() + "%");
+                : cb.like(cb.lower(root.get("author")),
+                        "%" + escapeLike(author.toLowerCase(Locale.ROOT)) + "%", LIKE_ESCAPE);
     }
 
     public static Specification<Document> createdAfter(LocalDateTime dateFrom) {
@@ -32,4 +46,29 @@ public final class DocumentSpecifications {
                 ? null
                 : cb.lessThanOrEqualTo(root.get("createdAt"), dateTo);
     }
+
+    /**
+     * Rows after ({@code createdAt}, {@code id}) in (created_at DESC, id DESC) order. The redundant
+     * {@code created_at <= :createdAt} gives the planner an index range bound the OR alone does not.
+     */
+    public static Specification<Document> before(LocalDateTime createdAt, Long id) {
+        return (root, query, cb) -> createdAt == null
+                ? null
+                : cb.and(
+                        cb.lessThanOrEqualTo(root.get("createdAt"), createdAt),
+                        cb.or(
+                                cb.lessThan(root.get("createdAt"), createdAt),
+                                cb.lessThan(root.get("id"), id)));
+    }
+
+    static String escapeLike(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                sb.append(LIKE_ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,40 @@
+package ru.itq.core.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.itq.api.dto.DocumentStatus;
+import ru.itq.core.domain.entity.DocumentStatusCounter;
+
+import java.util.List;
+
+@Repository
+public interface DocumentStatusCounterRepository
+        extends JpaRepository<DocumentStatusCounter, DocumentStatusCounter.Key> {
+
+    @Modifying
+    @Query("""
+            UPDATE DocumentStatusCounter c SET c.cnt = c.cnt + :delta
+            WHERE c.status = :status AND c.stripe = :stripe
+            """)
+    int add(@Param("status") DocumentStatus status, @Param("stripe") int stripe, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO document_status_counter (status, stripe, cnt)
+            VALUES (:status, :stripe, 0)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertStripeIfMissing(@Param("status") String status, @Param("stripe") int stripe);
+
+    @Query("SELECT COALESCE(SUM(c.cnt), 0) FROM DocumentStatusCounter c WHERE c.status = :status")
+    long sumByStatus(@Param("status") DocumentStatus status);
+
+    /**
+     * Rows of [status, sum of stripes].
+     */
+    @Query("SELECT c.status, SUM(c.cnt) FROM DocumentStatusCounter c GROUP BY c.status")
+    List<Object[]> sumGroupedByStatus();
+}
@@ -0,0 +1,68 @@
+package ru.itq.core.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.itq.core.domain.entity.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Reserves the key for a running request; 0 if it is already taken.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO idempotency_record (idempotency_key, endpoint, request_hash, created_at, expires_at)
+            VALUES (:key, :endpoint, :requestHash, :now, :expiresAt)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertIfMissing(@Param("key") String key, @Param("endpoint") String endpoint,
+                        @Param("requestHash") String requestHash, @Param("now") LocalDateTime now,
+                        @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Reserves a taken key again if its record expired but is not purged yet, or if its request
+     * has not completed since {@code staleBefore} (the node running it is presumed dead).
+     */
+    @Modifying
+    @Query("""
+            UPDATE IdempotencyRecord r
+            SET r.endpoint = :endpoint, r.requestHash = :requestHash, r.responseBody = NULL,
+                r.createdAt = :now, r.expiresAt = :expiresAt
+            WHERE r.idempotencyKey = :key
+              AND (r.expiresAt < :now OR (r.responseBody IS NULL AND r.createdAt < :staleBefore))
+            """)
+    int takeOver(@Param("key") String key, @Param("endpoint") String endpoint,
+                 @Param("requestHash") String requestHash, @Param("now") LocalDateTime now,
+                 @Param("expiresAt") LocalDateTime expiresAt, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Stores the response of the reservation made at {@code createdAt}.
+     */
+    @Modifying
+    @Query("""
+            UPDATE IdempotencyRecord r SET r.responseBody = :responseBody
+            WHERE r.idempotencyKey = :key AND r.createdAt = :createdAt AND r.responseBody IS NULL
+            """)
+    int complete(@Param("key") String key, @Param("createdAt") LocalDateTime createdAt,
+                 @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Query("""
+            DELETE FROM IdempotencyRecord r
+            WHERE r.idempotencyKey = :key AND r.createdAt = :createdAt AND r.responseBody IS NULL
+            """)
+    int deleteReservation(@Param("key") String key, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM idempotency_record WHERE idempotency_key IN (
+                SELECT idempotency_key FROM idempotency_record WHERE expires_at < :now LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
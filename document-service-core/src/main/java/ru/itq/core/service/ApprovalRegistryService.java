@@ -1,10 +1,19 @@
 package ru.itq.core.service;
 
 import ru.itq.core.domain.entity.ApprovalRegistry;
+import ru.itq.core.domain.exception.RegistryException;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 public interface ApprovalRegistryService {
 
     ApprovalRegistry createEntry(Long documentId, String approvedBy, LocalDateTime approvedAt);
+
+    /**
+     * Creates entries for all given documents in one statement.
+     *
+     * @throws RegistryException if an entry already exists for any of them
+     */
+    void createEntries(Collection<Long> documentIds, String approvedBy, LocalDateTime approvedAt);
 }
@@ -6,8 +6,13 @@ import org.springframework.stereotype.Service;
 import ru.itq.core.domain.entity.ApprovalRegistry;
 import ru.itq.core.domain.exception.RegistryException;
 import ru.itq.core.persistence.ApprovalRegistryRepository;
+import ru.itq.core.persistence.DocumentBulkRepository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -15,6 +20,7 @@ import java.time.LocalDateTime;
 public class ApprovalRegistryServiceImpl implements ApprovalRegistryService {
 
     private final ApprovalRegistryRepository approvalRegistryRepository;
+    private final DocumentBulkRepository documentBulkRepository;
 
     @Override
     public ApprovalRegistry createEntry(Long documentId, String approvedBy, LocalDateTime approvedAt) {
@@ -28,11 +34,23 @@ public class ApprovalRegistryServiceImpl implements ApprovalRegistryService {
                     .approvedBy(approvedBy)
                     .approvedAt(approvedAt)
                     .build();
-            ApprovalRegistry saved = approvalRegistryRepository.save(entry);
+            // Flush inside the try: with sequence ids the INSERT would otherwise be deferred to commit
+            ApprovalRegistry saved = approvalRegistryRepository.saveAndFlush(entry);
             log.info("Approval registry entry created for document id={}, approvedBy={}", documentId, approvedBy);
             return saved;
         } catch (Exception e) {
             throw new RegistryException("Failed to create approval registry entry for document id=" + documentId, e);
         }
     }
+
+    @Override
+    public void createEntries(Collection<Long> documentIds, String approvedBy, LocalDateTime approvedAt) {
+        List<Long> inserted = documentBulkRepository.insertApprovalRegistryEntries(documentIds, approvedBy, approvedAt);
+        if (inserted.size() < documentIds.size()) {
+            Set<Long> missing = new HashSet<>(documentIds);
+            inserted.forEach(missing::remove);
+            throw new RegistryException("Approval registry entry already exists for document ids=" + missing);
+        }
+        log.info("Approval registry entries created for {} documents, approvedBy={}", inserted.size(), approvedBy);
+    }
 }
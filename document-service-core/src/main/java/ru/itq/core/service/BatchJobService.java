@@ -0,0 +1,259 @@
+package ru.itq.core.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itq.api.dto.BatchJobOperation;
+import ru.itq.api.dto.BatchJobResponse;
+import ru.itq.api.dto.BatchJobStatus;
+import ru.itq.api.dto.BatchOperationResult;
+import ru.itq.core.config.JobProperties;
+import ru.itq.core.domain.entity.BatchJob;
+import ru.itq.core.domain.exception.BatchJobNotFoundException;
+import ru.itq.core.persistence.BatchJobItemBulkRepository;
+import ru.itq.core.persistence.BatchJobItemRepository;
+import ru.itq.core.persistence.BatchJobRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Asynchronous submit/approve of large id lists. A job is processed chunk by chunk through
+ * {@link DocumentService#submitBatch}/{@link DocumentService#approveBatch}; each chunk's results
+ * are committed together with the job's checkpoint, so a job claimed after a restart resumes
+ * from the first unprocessed chunk. The job's lease is renewed while a chunk runs, so a chunk
+ * slower than {@code lease-duration} does not let another node claim the job meanwhile.
+ */
+@Slf4j
+@Service
+public class BatchJobService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final BatchJobRepository jobRepository;
+    private final BatchJobItemRepository itemRepository;
+    private final BatchJobItemBulkRepository itemBulkRepository;
+    private final DocumentService documentService;
+    private final JobProperties jobProperties;
+    private final LeaseRenewer leaseRenewer;
+    private final TransactionTemplate writeTx;
+
+    public BatchJobService(BatchJobRepository jobRepository,
+                           BatchJobItemRepository itemRepository,
+                           BatchJobItemBulkRepository itemBulkRepository,
+                           DocumentService documentService,
+                           JobProperties jobProperties,
+                           LeaseRenewer leaseRenewer,
+                           PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.itemRepository = itemRepository;
+        this.itemBulkRepository = itemBulkRepository;
+        this.documentService = documentService;
+        this.jobProperties = jobProperties;
+        this.leaseRenewer = leaseRenewer;
+        this.writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional
+    public BatchJobResponse create(BatchJobOperation operation, List<Long> ids, String initiator) {
+        // Flushed before the JDBC item inserts, which reference it
+        BatchJob job = jobRepository.saveAndFlush(BatchJob.builder()
+                .operation(operation)
+                .status(BatchJobStatus.PENDING)
+                .initiator(initiator)
+                .total(ids.size())
+                .build());
+        itemBulkRepository.insertItems(job.getId(), ids);
+        log.info("Batch job id={} created: operation={}, ids={}, initiator={}",
+                job.getId(), operation, ids.size(), initiator);
+        return toResponse(job);
+    }
+
+    @Transactional(readOnly = true)
+    public BatchJobResponse get(Long id) {
+        return jobRepository.findById(id)
+                .map(this::toResponse)
+                .orElseThrow(() -> new BatchJobNotFoundException(id));
+    }
+
+    /**
+     * Results committed so far, in request order. Sorting is fixed, so only the page and size
+     * of {@code pageable} are used.
+     */
+    @Transactional(readOnly = true)
+    public Page<BatchOperationResult> getResults(Long id, Pageable pageable) {
+        if (!jobRepository.existsById(id)) {
+            throw new BatchJobNotFoundException(id);
+        }
+        return itemRepository.findResults(id, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    /**
+     * Leases the oldest unfinished job that no live node holds to {@code owner}.
+     */
+    @Transactional
+    public Optional<Long> claim(String owner) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<Long> id = jobRepository.findClaimableId(now);
+        id.ifPresent(jobId -> jobRepository.assignLease(jobId, owner, now.plus(leaseDuration()), now));
+        return id;
+    }
+
+    /**
+     * Processes the chunk at the job's checkpoint, then commits its results and the new checkpoint
+     * in one transaction. Documents move in transactions of their own before that, so a crash in
+     * between makes the next owner repeat the chunk; its ids then report conflict ("Expected DRAFT,
+     * got SUBMITTED") although this job moved them. At most one chunk per crash is affected.
+     *
+     * @return whether the job has more chunks for {@code owner}; false once it is completed or
+     * the lease was lost to another node
+     */
+    public boolean processNextChunk(Long jobId, String owner) {
+        // Job state is read in a read-write transaction: it must come from the primary
+        Chunk chunk = writeTx.execute(status -> {
+            BatchJob job = jobRepository.findById(jobId).orElseThrow(() -> new BatchJobNotFoundException(jobId));
+            if (!owner.equals(job.getLeaseOwner())) {
+                return null;
+            }
+            int from = job.getProcessed();
+            List<Long> ids = itemRepository.findDocumentIds(jobId, from, from + jobProperties.getChunkSize());
+            return new Chunk(job.getOperation(), job.getInitiator(), job.getTotal(), from, ids);
+        });
+        if (chunk == null) {
+            log.warn("Batch job id={}: lease lost by {}", jobId, owner);
+            return false;
+        }
+        if (chunk.ids().isEmpty()) {
+            finish(jobId, owner, BatchJobStatus.COMPLETED, null);
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        ScheduledFuture<?> renewal = leaseRenewer.renewEvery(leaseDuration(), () -> renewLease(jobId, owner));
+        List<BatchOperationResult> results;
+        try {
+            results = chunk.operation() == BatchJobOperation.SUBMIT
+                    ? documentService.submitBatch(chunk.ids(), chunk.initiator())
+                    : documentService.approveBatch(chunk.ids(), chunk.initiator());
+        } finally {
+            renewal.cancel(false);
+        }
+
+        boolean checkpointed = Boolean.TRUE.equals(writeTx.execute(status -> checkpoint(jobId, owner, chunk.from(), results)));
+        if (!checkpointed) {
+            log.warn("Batch job id={}: lease lost by {}, chunk at {} left to the new owner", jobId, owner, chunk.from());
+            return false;
+        }
+        int processed = chunk.from() + results.size();
+        log.info("Batch job id={}: {}/{} processed, chunk of {} in {}ms",
+                jobId, processed, chunk.total(), results.size(), System.currentTimeMillis() - start);
+        if (processed >= chunk.total()) {
+            finish(jobId, owner, BatchJobStatus.COMPLETED, null);
+            return false;
+        }
+        return true;
+    }
+
+    public void fail(Long jobId, String owner, String error) {
+        String message = error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+        finish(jobId, owner, BatchJobStatus.FAILED, message);
+    }
+
+    /**
+     * Frees the job for another node without losing progress, e.g. on shutdown.
+     */
+    public void release(Long jobId, String owner) {
+        writeTx.executeWithoutResult(status -> jobRepository.releaseLease(jobId, owner));
+    }
+
+    /**
+     * Deletes jobs, with their results, that completed or failed more than {@code app.jobs.retention}
+     * ms ago.
+     *
+     * @return jobs deleted
+     */
+    public int purgeFinished() {
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(jobProperties.getRetention()));
+        int total = 0;
+        int deleted;
+        do {
+            deleted = writeTx.execute(status ->
+                    jobRepository.deleteFinished(before, jobProperties.getCleanupBatchSize()));
+            total += deleted;
+        } while (deleted == jobProperties.getCleanupBatchSize());
+        return total;
+    }
+
+    private void renewLease(Long jobId, String owner) {
+        try {
+            writeTx.executeWithoutResult(status ->
+                    jobRepository.renewLease(jobId, owner, LocalDateTime.now().plus(leaseDuration())));
+        } catch (Exception e) {
+            log.warn("Batch job id={}: failed to renew lease: {}", jobId, e.getMessage());
+        }
+    }
+
+    private boolean checkpoint(Long jobId, String owner, int from, List<BatchOperationResult> results) {
+        int success = 0;
+        int conflict = 0;
+        int notFound = 0;
+        int registryError = 0;
+        for (BatchOperationResult result : results) {
+            switch (result.getResult()) {
+                case "success" -> success++;
+                case "not_found" -> notFound++;
+                case "registry_error" -> registryError++;
+                default -> conflict++;
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jobRepository.checkpoint(jobId, owner, from, results.size(),
+                success, conflict, notFound, registryError, now.plus(leaseDuration()), now);
+        if (updated == 0) {
+            return false;
+        }
+        itemBulkRepository.saveResults(jobId, from, results);
+        return true;
+    }
+
+    private void finish(Long jobId, String owner, BatchJobStatus status, String error) {
+        int updated = writeTx.execute(tx -> jobRepository.finish(jobId, owner, status, error, LocalDateTime.now()));
+        if (updated > 0) {
+            log.info("Batch job id={} {}", jobId, status);
+        }
+    }
+
+    private Duration leaseDuration() {
+        return Duration.ofMillis(jobProperties.getLeaseDuration());
+    }
+
+    private BatchJobResponse toResponse(BatchJob job) {
+        return BatchJobResponse.builder()
+                .id(job.getId())
+                .operation(job.getOperation())
+                .status(job.getStatus())
+                .initiator(job.getInitiator())
+                .total(job.getTotal())
+                .processed(job.getProcessed())
+                .success(job.getSuccessCount())
+                .conflict(job.getConflictCount())
+                .notFound(job.getNotFoundCount())
+                .registryError(job.getRegistryErrorCount())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private record Chunk(BatchJobOperation operation, String initiator, int total, int from, List<Long> ids) {
+    }
+}
@@ -0,0 +1,33 @@
+package ru.itq.core.service;
+
+import ru.itq.api.dto.DocumentHistoryResponse;
+import ru.itq.api.dto.DocumentResponse;
+import ru.itq.core.domain.entity.Document;
+
+import java.util.List;
+
+/**
+ * Entity to API DTO mapping for documents; history is read directly as DTO projections.
+ */
+public final class DocumentMapper {
+
+    private DocumentMapper() {
+    }
+
+    /**
+     * @param history history to embed, or {@code null} to leave {@code history} unset
+     */
+    public static DocumentResponse toResponse(Document doc, List<DocumentHistoryResponse> history) {
+        return DocumentResponse.builder()
+                .id(doc.getId())
+                .documentNumber(doc.getDocumentNumber())
+                .author(doc.getAuthor())
+                .title(doc.getTitle())
+                .status(doc.getStatus())
+                .version(doc.getVersion())
+                .createdAt(doc.getCreatedAt())
+                .updatedAt(doc.getUpdatedAt())
+                .history(history)
+                .build();
+    }
+}
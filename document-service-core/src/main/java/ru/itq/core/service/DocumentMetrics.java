@@ -0,0 +1,114 @@
+package ru.itq.core.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.itq.api.dto.BatchOperationResult;
+import ru.itq.api.dto.DocumentStatus;
+import ru.itq.core.persistence.DocumentRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Meters of the status transitions:
+ * <ul>
+ *   <li>{@code document.transition} — timer of one per-document transaction, by operation and result;</li>
+ *   <li>{@code document.transition.results} — results of every transition in any batch mode;</li>
+ *   <li>{@code document.batch.size}, {@code document.batch.duration} — per submitBatch/approveBatch call;</li>
+ *   <li>{@code document.backlog.size}, {@code document.backlog.age} — documents waiting in DRAFT/SUBMITTED
+ *   and the age of the oldest one, refreshed by {@link #refreshBacklog()} rather than queried per scrape.</li>
+ * </ul>
+ */
+@Component
+public class DocumentMetrics {
+
+    private static final List<DocumentStatus> BACKLOG_STATUSES = List.of(DocumentStatus.DRAFT, DocumentStatus.SUBMITTED);
+
+    private final MeterRegistry registry;
+    private final DocumentRepository documentRepository;
+    private final DocumentStatusCounterService statusCounterService;
+    private final Map<DocumentStatus, AtomicLong> backlogSize = new EnumMap<>(DocumentStatus.class);
+    private final Map<DocumentStatus, AtomicLong> backlogAgeSeconds = new EnumMap<>(DocumentStatus.class);
+
+    public DocumentMetrics(MeterRegistry registry, DocumentRepository documentRepository,
+                           DocumentStatusCounterService statusCounterService) {
+        this.registry = registry;
+        this.documentRepository = documentRepository;
+        this.statusCounterService = statusCounterService;
+        for (DocumentStatus status : BACKLOG_STATUSES) {
+            AtomicLong size = new AtomicLong();
+            AtomicLong age = new AtomicLong();
+            backlogSize.put(status, size);
+            backlogAgeSeconds.put(status, age);
+            Gauge.builder("document.backlog.size", size, AtomicLong::get)
+                    .description("Documents waiting in the status")
+                    .tag("status", status.name())
+                    .register(registry);
+            Gauge.builder("document.backlog.age", age, AtomicLong::get)
+                    .description("Age of the oldest document in the status")
+                    .baseUnit("seconds")
+                    .tag("status", status.name())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Runs one per-document transition and records its duration under its result.
+     */
+    public BatchOperationResult timeTransition(String operation, Supplier<BatchOperationResult> transition) {
+        Timer.Sample sample = Timer.start(registry);
+        String result = "error";
+        try {
+            BatchOperationResult outcome = transition.get();
+            result = outcome.getResult();
+            return outcome;
+        } finally {
+            sample.stop(Timer.builder("document.transition")
+                    .description("Per-document transition transaction")
+                    .tags("operation", operation, "result", result)
+                    .register(registry));
+        }
+    }
+
+    public void recordResults(String operation, List<BatchOperationResult> results) {
+        results.stream()
+                .collect(Collectors.groupingBy(BatchOperationResult::getResult, Collectors.counting()))
+                .forEach((result, count) -> Counter.builder("document.transition.results")
+                        .description("Transition results by operation")
+                        .tags("operation", operation, "result", result)
+                        .register(registry)
+                        .increment(count));
+    }
+
+    public void recordBatch(String operation, String mode, int size, long elapsedNanos) {
+        DistributionSummary.builder("document.batch.size")
+                .description("Ids per submit/approve batch")
+                .tag("operation", operation)
+                .register(registry)
+                .record(size);
+        Timer.builder("document.batch.duration")
+                .description("Submit/approve batch processing time")
+                .tags("operation", operation, "mode", mode)
+                .register(registry)
+                .record(Duration.ofNanos(elapsedNanos));
+    }
+
+    public void refreshBacklog() {
+        LocalDateTime now = LocalDateTime.now();
+        for (DocumentStatus status : BACKLOG_STATUSES) {
+            backlogSize.get(status).set(statusCounterService.count(status));
+            LocalDateTime oldest = documentRepository.findOldestCreatedAt(status).orElse(null);
+            backlogAgeSeconds.get(status).set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, now).toSeconds()));
+        }
+    }
+}
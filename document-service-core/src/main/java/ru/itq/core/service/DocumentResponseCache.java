@@ -0,0 +1,49 @@
+package ru.itq.core.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.itq.api.dto.DocumentResponse;
+import ru.itq.core.domain.event.DocumentTransitionEvent;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Cache of full {@link DocumentResponse}s (with history) for {@code getById}. Entries are keyed
+ * by id and only served for the version the caller has just read, so a copy that is stale
+ * (changed by another node, or put back by a reader racing a transition) is reloaded rather
+ * than returned. Entries of transitioned documents are evicted once the transition commits.
+ * Size, TTL and stats come from {@code spring.cache.caffeine.spec}.
+ */
+@Slf4j
+@Component
+public class DocumentResponseCache {
+
+    public static final String CACHE_NAME = "documents";
+
+    private final Cache cache;
+
+    public DocumentResponseCache(CacheManager cacheManager) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Cache not configured: " + CACHE_NAME);
+    }
+
+    public DocumentResponse get(Long id, Long version, Supplier<DocumentResponse> loader) {
+        DocumentResponse cached = cache.get(id, DocumentResponse.class);
+        if (cached != null && Objects.equals(cached.getVersion(), version)) {
+            return cached;
+        }
+        DocumentResponse loaded = loader.get();
+        cache.put(id, loaded);
+        return loaded;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransition(DocumentTransitionEvent event) {
+        event.documentIds().forEach(cache::evict);
+        log.debug("Evicted {} documents from cache", event.documentIds().size());
+    }
+}
@@ -4,30 +4,85 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import ru.itq.api.dto.*;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface DocumentService {
 
     DocumentResponse create(String author, String title, String initiator);
 
+    /**
+     * Creates all documents in one transaction. Numbers are reserved from the sequence in one
+     * call and rows are inserted in JDBC batches; the response lists ids and numbers in request order.
+     */
+    BatchCreateDocumentResponse createBatch(List<BatchCreateDocumentRequest.Item> documents, String initiator);
+
     DocumentResponse getById(Long id);
 
-    Page<DocumentResponse> getByIds(List<Long> ids, Pageable pageable);
+    /**
+     * Current status of a document, read from the primary: a stream subscriber must not start
+     * from a replica copy older than the transitions it will be sent.
+     */
+    DocumentStreamEvent getStatusSnapshot(Long id);
+
+    /**
+     * Authors of the existing documents among {@code ids}, read from the primary.
+     */
+    Map<Long, String> getAuthors(Collection<Long> ids);
+
+    /**
+     * @param includeHistory also embed each document's history, read for the whole page in one query
+     */
+    Page<DocumentResponse> getByIds(List<Long> ids, boolean includeHistory, Pageable pageable);
+
+    /**
+     * One page of a document's history; {@link #getById} always returns all of it.
+     */
+    Page<DocumentHistoryResponse> getHistory(Long id, Pageable pageable);
 
     Page<DocumentResponse> search(DocumentStatus status, String author,
                                   LocalDateTime dateFrom, LocalDateTime dateTo,
                                   Pageable pageable);
 
+    /**
+     * Keyset variant of {@link #search}: pages in (createdAt, id) descending order without
+     * OFFSET or a count query. Pass the previous page's {@code nextCursor}, or null for the first page.
+     */
+    DocumentCursorPage searchByCursor(DocumentStatus status, String author,
+                                      LocalDateTime dateFrom, LocalDateTime dateTo,
+                                      String cursor, int size);
+
+    /**
+     * Streams every document matching the {@link #search} filters to {@code sink}, newest first,
+     * from a database cursor: memory use does not depend on the number of rows.
+     */
+    void export(DocumentStatus status, String author, LocalDateTime dateFrom, LocalDateTime dateTo,
+                Consumer<DocumentResponse> sink);
+
     List<BatchOperationResult> submitBatch(List<Long> ids, String initiator);
 
     List<BatchOperationResult> approveBatch(List<Long> ids, String initiator);
 
     BatchOperationResult approveSingle(Long id, String initiator);
 
-    List<Long> getDocumentIdsForSubmit(int batchSize);
+    /**
+     * Claims up to {@code batchSize} documents in {@code status} for {@code owner}: other owners
+     * skip them until the lease is released or expires.
+     */
+    List<Long> claimBatch(DocumentStatus status, int batchSize, String owner, Duration leaseDuration);
 
-    List<Long> getDocumentIdsForApprove(int batchSize);
+    int renewLease(List<Long> ids, String owner, Duration leaseDuration);
 
+    int releaseLease(List<Long> ids, String owner);
+
+    /**
+     * Served from the striped status counters, not COUNT(*).
+     */
     long countByStatus(DocumentStatus status);
+
+    DocumentStatsResponse getStats();
 }
@@ -1,38 +1,65 @@
 package ru.itq.core.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.itq.api.dto.*;
+import ru.itq.core.config.BatchProperties;
+import ru.itq.core.config.ExportProperties;
 import ru.itq.core.domain.entity.Document;
-import ru.itq.core.domain.entity.DocumentHistory;
 import ru.itq.core.domain.exception.DocumentNotFoundException;
+import ru.itq.core.domain.exception.RegistryException;
+import ru.itq.core.persistence.DocumentExportRepository;
 import ru.itq.core.persistence.DocumentHistoryRepository;
+import ru.itq.core.persistence.DocumentProjectionRepository;
 import ru.itq.core.persistence.DocumentRepository;
 import ru.itq.core.persistence.DocumentSpecifications;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DocumentServiceImpl implements DocumentService {
 
+    /**
+     * Documents persisted between flush/clear in createBatch; the flush itself is split into
+     * hibernate.jdbc.batch_size statements.
+     */
+    private static final int CREATE_FLUSH_SIZE = 500;
+
+    private final EntityManager entityManager;
     private final DocumentRepository documentRepository;
     private final DocumentHistoryRepository documentHistoryRepository;
     private final DocumentTransactionalHelper txHelper;
+    private final BatchProperties batchProperties;
+    private final ParallelBatchExecutor parallelBatchExecutor;
+    private final DocumentStatusCounterService statusCounterService;
+    private final DocumentResponseCache documentResponseCache;
+    private final DocumentMetrics documentMetrics;
+    private final DocumentExportRepository documentExportRepository;
+    private final DocumentProjectionRepository documentProjectionRepository;
+    private final ExportProperties exportProperties;
 
     @Override
     @Transactional
     public DocumentResponse create(String author, String title, String initiator) {
-        Long seqNum = documentRepository.getNextDocumentNumber();
-        String documentNumber = String.format("DOC-%07d", seqNum);
+        String documentNumber = formatDocumentNumber(documentRepository.getNextDocumentNumber());
 
         Document document = Document.builder()
                 .documentNumber(documentNumber)
@@ -42,24 +69,105 @@ public class DocumentServiceImpl implements DocumentService {
                 .build();
 
         Document saved = documentRepository.save(document);
+        statusCounterService.increment(DocumentStatus.DRAFT, 1);
         log.info("Document created: number={}, author={}, initiator={}", documentNumber, author, initiator);
-        return toResponse(saved, null);
+        return DocumentMapper.toResponse(saved, null);
+    }
+
+    @Override
+    @Transactional
+    public BatchCreateDocumentResponse createBatch(List<BatchCreateDocumentRequest.Item> documents, String initiator) {
+        long start = System.currentTimeMillis();
+        List<Long> numbers = documentRepository.getNextDocumentNumbers(documents.size());
+
+        List<Long> ids = new ArrayList<>(documents.size());
+        List<String> documentNumbers = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            BatchCreateDocumentRequest.Item item = documents.get(i);
+            Document document = Document.builder()
+                    .documentNumber(formatDocumentNumber(numbers.get(i)))
+                    .author(item.getAuthor())
+                    .title(item.getTitle())
+                    .status(DocumentStatus.DRAFT)
+                    .build();
+            entityManager.persist(document);
+            ids.add(document.getId());
+            documentNumbers.add(document.getDocumentNumber());
+
+            if ((i + 1) % CREATE_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statusCounterService.increment(DocumentStatus.DRAFT, documents.size());
+
+        log.info("Batch CREATE completed: total={}, initiator={}, elapsed={}ms",
+                documents.size(), initiator, System.currentTimeMillis() - start);
+        return BatchCreateDocumentResponse.builder()
+                .created(documents.size())
+                .ids(ids)
+                .documentNumbers(documentNumbers)
+                .build();
     }
 
     @Override
     @Transactional(readOnly = true)
     public DocumentResponse getById(Long id) {
+        // Version probe by primary key; the document and its history are loaded only on a cache miss
+        Long version = documentRepository.findVersionById(id)
+                .orElseThrow(() -> new DocumentNotFoundException(id));
+        return documentResponseCache.get(id, version, () -> {
+            Document document = documentRepository.findById(id)
+                    .orElseThrow(() -> new DocumentNotFoundException(id));
+            return DocumentMapper.toResponse(document, documentHistoryRepository.findResponsesByDocumentId(id));
+        });
+    }
+
+    @Override
+    @Transactional
+    public DocumentStreamEvent getStatusSnapshot(Long id) {
         Document document = documentRepository.findById(id)
                 .orElseThrow(() -> new DocumentNotFoundException(id));
-        List<DocumentHistory> history = documentHistoryRepository.findByDocumentIdOrderByCreatedAtAsc(id);
-        return toResponse(document, history);
+        return DocumentStreamEvent.builder()
+                .documentId(id)
+                .status(document.getStatus())
+                .occurredAt(document.getUpdatedAt())
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, String> getAuthors(Collection<Long> ids) {
+        return documentRepository.findAuthorsByIdIn(ids).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (String) row[1]));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<DocumentResponse> getByIds(List<Long> ids, Pageable pageable) {
-        return documentRepository.findAllByIdIn(ids, pageable)
-                .map(doc -> toResponse(doc, null));
+    public Page<DocumentResponse> getByIds(List<Long> ids, boolean includeHistory, Pageable pageable) {
+        Page<DocumentResponse> page = documentProjectionRepository.findPage(DocumentSpecifications.idIn(ids), pageable);
+        if (!includeHistory || page.isEmpty()) {
+            return page;
+        }
+
+        Map<Long, List<DocumentHistoryResponse>> histories = documentHistoryRepository
+                .findResponsesByDocumentIdIn(page.map(DocumentResponse::getId).getContent()).stream()
+                .collect(Collectors.groupingBy(DocumentHistoryResponse::getDocumentId));
+        page.forEach(doc -> doc.setHistory(histories.getOrDefault(doc.getId(), List.of())));
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<DocumentHistoryResponse> getHistory(Long id, Pageable pageable) {
+        Page<DocumentHistoryResponse> page = documentHistoryRepository.findResponsesByDocumentId(id, pageable);
+        // A new DRAFT has no history either; only then is it worth telling it from a missing document
+        if (page.isEmpty() && !documentRepository.existsById(id)) {
+            throw new DocumentNotFoundException(id);
+        }
+        return page;
     }
 
     @Override
@@ -73,98 +181,186 @@ public class DocumentServiceImpl implements DocumentService {
                 .and(DocumentSpecifications.createdAfter(dateFrom))
                 .and(DocumentSpecifications.createdBefore(dateTo));
 
-        return documentRepository.findAll(spec, pageable)
-                .map(doc -> toResponse(doc, null));
+        return documentProjectionRepository.findPage(spec, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentCursorPage searchByCursor(DocumentStatus status, String author,
+                                             LocalDateTime dateFrom, LocalDateTime dateTo,
+                                             String cursor, int size) {
+        DocumentCursor after = cursor == null || cursor.isBlank() ? null : DocumentCursor.decode(cursor);
+        Specification<Document> spec = Specification
+                .where(DocumentSpecifications.hasStatus(status))
+                .and(DocumentSpecifications.hasAuthor(author))
+                .and(DocumentSpecifications.createdAfter(dateFrom))
+                .and(DocumentSpecifications.createdBefore(dateTo))
+                .and(after == null ? null : DocumentSpecifications.before(after.createdAt(), after.id()));
+
+        // One extra row tells whether there is a next page, so no count query is needed
+        List<DocumentResponse> rows = documentProjectionRepository.findList(spec,
+                Sort.by(Sort.Direction.DESC, "createdAt", "id"), size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<DocumentResponse> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            DocumentResponse last = page.get(page.size() - 1);
+            nextCursor = new DocumentCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return DocumentCursorPage.builder()
+                .content(page)
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(DocumentStatus status, String author, LocalDateTime dateFrom, LocalDateTime dateTo,
+                       Consumer<DocumentResponse> sink) {
+        documentExportRepository.stream(status, author, dateFrom, dateTo, exportProperties.getFetchSize(), sink);
     }
 
     @Override
     public List<BatchOperationResult> submitBatch(List<Long> ids, String initiator) {
-        long start = System.currentTimeMillis();
-        List<BatchOperationResult> results = new ArrayList<>();
+        long start = System.nanoTime();
+        List<BatchOperationResult> results = null;
 
-        for (Long id : ids) {
-            results.add(txHelper.submitSingle(id, initiator));
+        if (batchProperties.getMode() == BatchProperties.Mode.BULK) {
+            try {
+                results = txHelper.submitBulk(ids, initiator);
+            } catch (DataAccessException e) {
+                log.warn("Bulk SUBMIT failed, falling back to per-document processing: {}", e.getMessage());
+            }
+        }
+        boolean bulk = results != null;
+        int concurrency = 1;
+        if (!bulk) {
+            concurrency = perDocumentConcurrency(ids);
+            results = processEach(ids, id -> documentMetrics.timeTransition("submit",
+                    () -> txHelper.submitSingle(id, initiator)));
         }
 
-        long elapsed = System.currentTimeMillis() - start;
+        long elapsedNanos = System.nanoTime() - start;
+        documentMetrics.recordResults("submit", results);
+        String mode = batchMode(bulk);
+        documentMetrics.recordBatch("submit", mode, ids.size(), elapsedNanos);
+        long elapsed = elapsedNanos / 1_000_000;
         long successCount = results.stream().filter(r -> "success".equals(r.getResult())).count();
-        log.info("Batch SUBMIT completed: total={}, success={}, elapsed={}ms", ids.size(), successCount, elapsed);
+        log.info("Batch SUBMIT completed: total={}, success={}, mode={}, concurrency={}, elapsed={}ms",
+                ids.size(), successCount, mode, concurrency, elapsed);
         return results;
     }
 
     @Override
     public List<BatchOperationResult> approveBatch(List<Long> ids, String initiator) {
-        long start = System.currentTimeMillis();
-        List<BatchOperationResult> results = new ArrayList<>();
+        long start = System.nanoTime();
+        List<BatchOperationResult> results = null;
 
-        for (Long id : ids) {
-            results.add(txHelper.approveSingle(id, initiator));
+        if (batchProperties.getMode() == BatchProperties.Mode.BULK) {
+            try {
+                results = txHelper.approveBulk(ids, initiator);
+            } catch (DataAccessException | RegistryException e) {
+                log.warn("Bulk APPROVE failed, falling back to per-document processing: {}", e.getMessage());
+            }
+        }
+        boolean bulk = results != null;
+        int concurrency = 1;
+        if (!bulk) {
+            concurrency = perDocumentConcurrency(ids);
+            results = processEach(ids, id -> documentMetrics.timeTransition("approve",
+                    () -> txHelper.approveSingle(id, initiator)));
         }
 
-        long elapsed = System.currentTimeMillis() - start;
+        long elapsedNanos = System.nanoTime() - start;
+        documentMetrics.recordResults("approve", results);
+        String mode = batchMode(bulk);
+        documentMetrics.recordBatch("approve", mode, ids.size(), elapsedNanos);
+        long elapsed = elapsedNanos / 1_000_000;
         long successCount = results.stream().filter(r -> "success".equals(r.getResult())).count();
         long conflictCount = results.stream().filter(r -> "conflict".equals(r.getResult())).count();
         long errorCount = results.stream().filter(r -> "registry_error".equals(r.getResult())).count();
-        log.info("Batch APPROVE completed: total={}, success={}, conflict={}, registryErrors={}, elapsed={}ms",
-                ids.size(), successCount, conflictCount, errorCount, elapsed);
+        log.info("Batch APPROVE completed: total={}, success={}, conflict={}, registryErrors={}, mode={}, "
+                        + "concurrency={}, elapsed={}ms",
+                ids.size(), successCount, conflictCount, errorCount, mode, concurrency, elapsed);
         return results;
     }
 
     @Override
     public BatchOperationResult approveSingle(Long id, String initiator) {
-        return txHelper.approveSingle(id, initiator);
+        BatchOperationResult result = documentMetrics.timeTransition("approve",
+                () -> txHelper.approveSingle(id, initiator));
+        documentMetrics.recordResults("approve", List.of(result));
+        return result;
     }
 
     @Override
     @Transactional
-    public List<Long> getDocumentIdsForSubmit(int batchSize) {
-        return documentRepository.findBatchForProcessing(DocumentStatus.DRAFT.name(), batchSize)
-                .stream()
-                .map(Document::getId)
-                .toList();
+    public List<Long> claimBatch(DocumentStatus status, int batchSize, String owner, Duration leaseDuration) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = documentRepository.findClaimableIds(status.name(), now, batchSize);
+        if (!ids.isEmpty()) {
+            documentRepository.assignLease(ids, owner, now.plus(leaseDuration));
+        }
+        return ids;
     }
 
     @Override
     @Transactional
-    public List<Long> getDocumentIdsForApprove(int batchSize) {
-        return documentRepository.findBatchForProcessing(DocumentStatus.SUBMITTED.name(), batchSize)
-                .stream()
-                .map(Document::getId)
-                .toList();
+    public int renewLease(List<Long> ids, String owner, Duration leaseDuration) {
+        return documentRepository.renewLease(ids, owner, LocalDateTime.now().plus(leaseDuration));
+    }
+
+    @Override
+    @Transactional
+    public int releaseLease(List<Long> ids, String owner) {
+        return documentRepository.releaseLease(ids, owner);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public long countByStatus(DocumentStatus status) {
-        return documentRepository.countByStatus(status);
-    }
-
-    private DocumentResponse toResponse(Document doc, List<DocumentHistory> history) {
-        DocumentResponse.DocumentResponseBuilder builder = DocumentResponse.builder()
-                .id(doc.getId())
-                .documentNumber(doc.getDocumentNumber())
-                .author(doc.getAuthor())
-                .title(doc.getTitle())
-                .status(doc.getStatus())
-                .version(doc.getVersion())
-                .createdAt(doc.getCreatedAt())
-                .updatedAt(doc.getUpdatedAt());
-
-        if (history != null) {
-            builder.history(history.stream().map(this::toHistoryResponse).toList());
+        return statusCounterService.count(status);
+    }
+
+    @Override
+    public DocumentStatsResponse getStats() {
+        Map<DocumentStatus, Long> counts = statusCounterService.counts();
+        return DocumentStatsResponse.builder()
+                .countsByStatus(counts)
+                .total(counts.values().stream().mapToLong(Long::longValue).sum())
+                .build();
+    }
+
+    private List<BatchOperationResult> processEach(List<Long> ids, Function<Long, BatchOperationResult> operation) {
+        if (batchProperties.getMode() == BatchProperties.Mode.PARALLEL) {
+            return parallelBatchExecutor.execute(ids, operation);
         }
+        List<BatchOperationResult> results = new ArrayList<>();
+        for (Long id : ids) {
+            results.add(operation.apply(id));
+        }
+        return results;
+    }
 
-        return builder.build();
+    /**
+     * Mode a batch actually ran in: a failed bulk attempt falls back to per-document.
+     */
+    private String batchMode(boolean bulk) {
+        if (bulk) {
+            return "bulk";
+        }
+        return batchProperties.getMode() == BatchProperties.Mode.PARALLEL ? "parallel" : "per_document";
     }
 
-    private DocumentHistoryResponse toHistoryResponse(DocumentHistory h) {
-        return DocumentHistoryResponse.builder()
-                .id(h.getId())
-                .documentId(h.getDocumentId())
-                .performedBy(h.getPerformedBy())
-                .action(h.getAction())
-                .comment(h.getComment())
-                .createdAt(h.getCreatedAt())
-                .build();
+    private int perDocumentConcurrency(List<Long> ids) {
+        return batchProperties.getMode() == BatchProperties.Mode.PARALLEL
+                ? Math.min(ids.size(), parallelBatchExecutor.getConcurrency())
+                : 1;
+    }
+
+    private static String formatDocumentNumber(long number) {
+        return String.format("DOC-%07d", number);
     }
 }
@@ -0,0 +1,126 @@
+package ru.itq.core.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itq.api.dto.DocumentStatus;
+import ru.itq.core.config.CounterProperties;
+import ru.itq.core.persistence.DocumentRepository;
+import ru.itq.core.persistence.DocumentStatusCounterRepository;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-status document counts kept in striped counter rows, updated in the transaction that
+ * changes the documents. Reading a count sums a handful of rows instead of scanning
+ * {@code document}; {@link #reconcile()} corrects drift from writes that bypass the service.
+ */
+@Slf4j
+@Service
+public class DocumentStatusCounterService {
+
+    private final DocumentStatusCounterRepository counterRepository;
+    private final DocumentRepository documentRepository;
+    private final CounterProperties counterProperties;
+    private final TransactionTemplate snapshotTx;
+    private final TransactionTemplate writeTx;
+
+    public DocumentStatusCounterService(DocumentStatusCounterRepository counterRepository,
+                                        DocumentRepository documentRepository,
+                                        CounterProperties counterProperties,
+                                        PlatformTransactionManager transactionManager) {
+        this.counterRepository = counterRepository;
+        this.documentRepository = documentRepository;
+        this.counterProperties = counterProperties;
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTx.setReadOnly(true);
+        this.writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void increment(DocumentStatus status, long delta) {
+        add(status, randomStripe(), delta);
+    }
+
+    /**
+     * Moves {@code count} documents from one status counter to another. Statuses only move
+     * forward, so every transaction locks counter rows in the same order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transition(DocumentStatus from, DocumentStatus to, long count) {
+        if (count == 0) {
+            return;
+        }
+        int stripe = randomStripe();
+        add(from, stripe, -count);
+        add(to, stripe, count);
+    }
+
+    @Transactional(readOnly = true)
+    public long count(DocumentStatus status) {
+        return counterRepository.sumByStatus(status);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<DocumentStatus, Long> counts() {
+        return toStatusMap(counterRepository.sumGroupedByStatus());
+    }
+
+    /**
+     * Compares the counters with COUNT(*) inside one REPEATABLE READ snapshot, then adds the
+     * difference in a separate short transaction. Transitions committed after the snapshot are
+     * already reflected in the counters, so applying a delta (not an absolute value) keeps them.
+     *
+     * @return corrections applied per status (empty if the counters were accurate)
+     */
+    public Map<DocumentStatus, Long> reconcile() {
+        Map<DocumentStatus, Long> drift = snapshotTx.execute(status -> {
+            Map<DocumentStatus, Long> actual = toStatusMap(documentRepository.countGroupedByStatus());
+            Map<DocumentStatus, Long> counted = toStatusMap(counterRepository.sumGroupedByStatus());
+            Map<DocumentStatus, Long> diff = new EnumMap<>(DocumentStatus.class);
+            for (DocumentStatus s : DocumentStatus.values()) {
+                long delta = actual.get(s) - counted.get(s);
+                if (delta != 0) {
+                    diff.put(s, delta);
+                }
+            }
+            return diff;
+        });
+
+        if (!drift.isEmpty()) {
+            writeTx.executeWithoutResult(status -> drift.forEach((s, delta) -> add(s, 0, delta)));
+            log.warn("Status counters reconciled, corrections applied: {}", drift);
+        }
+        return drift;
+    }
+
+    private void add(DocumentStatus status, int stripe, long delta) {
+        if (counterRepository.add(status, stripe, delta) == 0) {
+            counterRepository.insertStripeIfMissing(status.name(), stripe);
+            counterRepository.add(status, stripe, delta);
+        }
+    }
+
+    private int randomStripe() {
+        return ThreadLocalRandom.current().nextInt(Math.max(1, counterProperties.getStripes()));
+    }
+
+    private static Map<DocumentStatus, Long> toStatusMap(List<Object[]> rows) {
+        Map<DocumentStatus, Long> result = new EnumMap<>(DocumentStatus.class);
+        for (DocumentStatus s : DocumentStatus.values()) {
+            result.put(s, 0L);
+        }
+        for (Object[] row : rows) {
+            result.put((DocumentStatus) row[0], ((Number) row[1]).longValue());
+        }
+        return result;
+    }
+}
@@ -2,20 +2,31 @@ package ru.itq.core.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import ru.itq.api.dto.BatchOperationResult;
 import ru.itq.api.dto.DocumentStatus;
 import ru.itq.api.dto.HistoryAction;
 import ru.itq.core.domain.entity.Document;
 import ru.itq.core.domain.entity.DocumentHistory;
+import ru.itq.core.domain.entity.DocumentOutboxEvent;
+import ru.itq.core.domain.event.DocumentTransitionEvent;
 import ru.itq.core.domain.exception.RegistryException;
+import ru.itq.core.persistence.DocumentBulkRepository;
 import ru.itq.core.persistence.DocumentHistoryRepository;
+import ru.itq.core.persistence.DocumentOutboxRepository;
 import ru.itq.core.persistence.DocumentRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Separate bean so that REQUIRES_NEW propagation works correctly
@@ -28,7 +39,11 @@ public class DocumentTransactionalHelper {
 
     private final DocumentRepository documentRepository;
     private final DocumentHistoryRepository documentHistoryRepository;
+    private final DocumentBulkRepository documentBulkRepository;
+    private final DocumentOutboxRepository outboxRepository;
     private final ApprovalRegistryService approvalRegistryService;
+    private final DocumentStatusCounterService statusCounterService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public BatchOperationResult submitSingle(Long id, String initiator) {
@@ -43,7 +58,10 @@ public class DocumentTransactionalHelper {
             }
 
             document.setStatus(DocumentStatus.SUBMITTED);
-            documentRepository.save(document);
+            // Flush now so a version conflict surfaces here rather than at commit
+            documentRepository.saveAndFlush(document);
+            statusCounterService.transition(DocumentStatus.DRAFT, DocumentStatus.SUBMITTED, 1);
+            eventPublisher.publishEvent(new DocumentTransitionEvent(List.of(id), DocumentStatus.SUBMITTED, initiator));
 
             DocumentHistory history = DocumentHistory.builder()
                     .documentId(id)
@@ -52,17 +70,62 @@ public class DocumentTransactionalHelper {
                     .comment("Submitted by " + initiator)
                     .build();
             documentHistoryRepository.save(history);
+            saveOutboxEvent(id, DocumentStatus.SUBMITTED, initiator);
 
             log.debug("Document id={} submitted by {}", id, initiator);
             return BatchOperationResult.success(id);
         } catch (ObjectOptimisticLockingFailureException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return BatchOperationResult.conflict(id, "Concurrent modification detected");
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             log.error("Error submitting document id={}: {}", id, e.getMessage(), e);
             return BatchOperationResult.conflict(id, e.getMessage());
         }
     }
 
+    /**
+     * Submits the whole batch in one transaction: a conditional UPDATE ... RETURNING
+     * moves eligible DRAFT rows, one INSERT ... SELECT writes their history, and only
+     * ids that were not moved are looked up to tell conflict from not_found.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<BatchOperationResult> submitBulk(List<Long> ids, String initiator) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> distinctIds = ids.stream().distinct().toList();
+
+        Set<Long> moved = new HashSet<>(documentBulkRepository.transitionStatus(
+                distinctIds, DocumentStatus.DRAFT, DocumentStatus.SUBMITTED, now));
+        if (!moved.isEmpty()) {
+            documentBulkRepository.insertHistory(moved, HistoryAction.SUBMIT, initiator,
+                    "Submitted by " + initiator, now);
+            documentBulkRepository.insertOutboxEvents(moved, DocumentStatus.SUBMITTED, initiator, now);
+            statusCounterService.transition(DocumentStatus.DRAFT, DocumentStatus.SUBMITTED, moved.size());
+            eventPublisher.publishEvent(new DocumentTransitionEvent(moved, DocumentStatus.SUBMITTED, initiator));
+        }
+
+        Map<Long, DocumentStatus> statuses = moved.size() < distinctIds.size()
+                ? documentBulkRepository.findStatuses(distinctIds.stream().filter(id -> !moved.contains(id)).toList())
+                : Map.of();
+
+        List<BatchOperationResult> results = new ArrayList<>(ids.size());
+        Set<Long> reported = new HashSet<>();
+        for (Long id : ids) {
+            if (moved.contains(id) && reported.add(id)) {
+                results.add(BatchOperationResult.success(id));
+            } else if (moved.contains(id)) {
+                results.add(BatchOperationResult.conflict(id, "Expected DRAFT, got " + DocumentStatus.SUBMITTED));
+            } else if (statuses.containsKey(id)) {
+                results.add(BatchOperationResult.conflict(id, "Expected DRAFT, got " + statuses.get(id)));
+            } else {
+                results.add(BatchOperationResult.notFound(id));
+            }
+        }
+
+        log.debug("Bulk submit by {}: requested={}, moved={}", initiator, ids.size(), moved.size());
+        return results;
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public BatchOperationResult approveSingle(Long id, String initiator) {
         try {
@@ -76,7 +139,9 @@ public class DocumentTransactionalHelper {
             }
 
             document.setStatus(DocumentStatus.APPROVED);
-            documentRepository.save(document);
+            documentRepository.saveAndFlush(document);
+            statusCounterService.transition(DocumentStatus.SUBMITTED, DocumentStatus.APPROVED, 1);
+            eventPublisher.publishEvent(new DocumentTransitionEvent(List.of(id), DocumentStatus.APPROVED, initiator));
 
             DocumentHistory history = DocumentHistory.builder()
                     .documentId(id)
@@ -87,17 +152,84 @@ public class DocumentTransactionalHelper {
             documentHistoryRepository.save(history);
 
             approvalRegistryService.createEntry(id, initiator, LocalDateTime.now());
+            saveOutboxEvent(id, DocumentStatus.APPROVED, initiator);
 
             log.debug("Document id={} approved by {}", id, initiator);
             return BatchOperationResult.success(id);
         } catch (ObjectOptimisticLockingFailureException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return BatchOperationResult.conflict(id, "Concurrent modification detected");
         } catch (RegistryException e) {
+            // Roll back the status change and history: no APPROVED document without a registry entry
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             log.error("Registry error approving document id={}: {}", id, e.getMessage());
             return BatchOperationResult.registryError(id, e.getMessage());
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             log.error("Error approving document id={}: {}", id, e.getMessage(), e);
             return BatchOperationResult.registryError(id, e.getMessage());
         }
     }
+
+    /**
+     * Approves the whole batch in one transaction: UPDATE ... RETURNING moves SUBMITTED rows
+     * without a registry entry, then history and registry rows are written with one statement
+     * each. If a registry insert is skipped by ON CONFLICT (a concurrent entry appeared),
+     * {@link RegistryException} rolls the batch back so the caller can retry it per document.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<BatchOperationResult> approveBulk(List<Long> ids, String initiator) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> distinctIds = ids.stream().distinct().toList();
+
+        Set<Long> moved = new HashSet<>(documentBulkRepository.approveSubmitted(distinctIds, now));
+        if (!moved.isEmpty()) {
+            documentBulkRepository.insertHistory(moved, HistoryAction.APPROVE, initiator,
+                    "Approved by " + initiator, now);
+            approvalRegistryService.createEntries(moved, initiator, now);
+            documentBulkRepository.insertOutboxEvents(moved, DocumentStatus.APPROVED, initiator, now);
+            statusCounterService.transition(DocumentStatus.SUBMITTED, DocumentStatus.APPROVED, moved.size());
+            eventPublisher.publishEvent(new DocumentTransitionEvent(moved, DocumentStatus.APPROVED, initiator));
+        }
+
+        Map<Long, DocumentStatus> statuses = Map.of();
+        Set<Long> registered = Set.of();
+        if (moved.size() < distinctIds.size()) {
+            List<Long> rest = distinctIds.stream().filter(id -> !moved.contains(id)).toList();
+            statuses = documentBulkRepository.findStatuses(rest);
+            registered = documentBulkRepository.findRegisteredDocumentIds(rest);
+        }
+
+        List<BatchOperationResult> results = new ArrayList<>(ids.size());
+        Set<Long> reported = new HashSet<>();
+        for (Long id : ids) {
+            DocumentStatus current = moved.contains(id) ? DocumentStatus.APPROVED : statuses.get(id);
+            if (moved.contains(id) && reported.add(id)) {
+                results.add(BatchOperationResult.success(id));
+            } else if (current == null) {
+                results.add(BatchOperationResult.notFound(id));
+            } else if (current != DocumentStatus.SUBMITTED) {
+                results.add(BatchOperationResult.conflict(id, "Expected SUBMITTED, got " + current));
+            } else if (registered.contains(id)) {
+                results.add(BatchOperationResult.registryError(id,
+                        "Approval registry entry already exists for document id=" + id));
+            } else {
+                results.add(BatchOperationResult.conflict(id, "Concurrent modification detected"));
+            }
+        }
+
+        log.debug("Bulk approve by {}: requested={}, moved={}", initiator, ids.size(), moved.size());
+        return results;
+    }
+
+    /**
+     * Outbox row for the relay, committed or rolled back together with the transition.
+     */
+    private void saveOutboxEvent(Long documentId, DocumentStatus status, String initiator) {
+        outboxRepository.save(DocumentOutboxEvent.builder()
+                .documentId(documentId)
+                .status(status)
+                .performedBy(initiator)
+                .build());
+    }
 }
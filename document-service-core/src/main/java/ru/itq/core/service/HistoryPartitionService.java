@@ -0,0 +1,72 @@
+package ru.itq.core.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itq.core.config.HistoryPartitionProperties;
+import ru.itq.core.persistence.DocumentHistoryPartitionRepository;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps {@code document_history} partitioned ahead of time and applies the retention policy.
+ * An INSERT into a month without a partition fails, so partitions are created
+ * {@code premakeMonths} in advance. Runs under an advisory lock, so several instances
+ * never issue the same DDL concurrently.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HistoryPartitionService {
+
+    private final DocumentHistoryPartitionRepository partitionRepository;
+    private final HistoryPartitionProperties properties;
+
+    @Transactional
+    public void maintain() {
+        maintain(YearMonth.now());
+    }
+
+    /**
+     * Creates partitions for {@code current} and the following {@code premakeMonths} months, then
+     * detaches or drops the partitions older than {@code retentionMonths} before {@code current}.
+     */
+    @Transactional
+    public void maintain(YearMonth current) {
+        partitionRepository.lock();
+        List<YearMonth> existing = partitionRepository.findPartitionMonths();
+
+        List<YearMonth> created = new ArrayList<>();
+        for (int i = 0; i <= properties.getPremakeMonths(); i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                partitionRepository.createPartition(month);
+                created.add(month);
+            }
+        }
+
+        List<YearMonth> expired = new ArrayList<>();
+        if (properties.getRetentionMonths() > 0) {
+            YearMonth oldestKept = current.minusMonths(properties.getRetentionMonths());
+            for (YearMonth month : existing) {
+                if (!month.isBefore(oldestKept)) {
+                    break;
+                }
+                if (properties.getRetentionAction() == HistoryPartitionProperties.RetentionAction.DROP) {
+                    partitionRepository.dropPartition(month);
+                } else {
+                    partitionRepository.detachPartition(month);
+                }
+                expired.add(month);
+            }
+        }
+
+        if (!created.isEmpty() || !expired.isEmpty()) {
+            log.info("History partitions maintained: created={}, {}={}",
+                    created, properties.getRetentionAction(), expired);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.itq.core.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps leases alive while their holder works: the status workers' document leases and the
+ * batch jobs' leases. One scheduler thread only keeps time; every renewal runs on a virtual
+ * thread of its own, so a renewal stuck on the database delays no other lease. A renewal still
+ * running when the next one is due is skipped rather than doubled up.
+ */
+@Component
+public class LeaseRenewer {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("lease-renewer").factory());
+
+    /**
+     * Runs {@code renewal} every third of {@code leaseDuration} until the returned future is
+     * cancelled. {@code renewal} should handle its own failures; one that throws is not retried
+     * until the next period.
+     */
+    public ScheduledFuture<?> renewEvery(Duration leaseDuration, Runnable renewal) {
+        long period = Math.max(1, leaseDuration.toMillis() / 3);
+        AtomicBoolean running = new AtomicBoolean();
+        return scheduler.scheduleAtFixedRate(() -> {
+            if (running.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("lease-renewal").start(() -> {
+                    try {
+                        renewal.run();
+                    } finally {
+                        running.set(false);
+                    }
+                });
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,124 @@
+package ru.itq.core.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itq.api.dto.DocumentStatusEvent;
+import ru.itq.core.config.OutboxProperties;
+import ru.itq.core.domain.entity.DocumentOutboxEvent;
+import ru.itq.core.persistence.DocumentOutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes document outbox events to the configured {@link OutboxSink}. A batch stays locked
+ * ({@code FOR UPDATE SKIP LOCKED}) while the sink runs and is marked delivered in the same
+ * transaction, so relays on other nodes take other rows, and a batch whose node dies before
+ * the commit is published again (at-least-once). After a failed batch the relay pauses until the
+ * batch is due again, instead of trying the following rows against a sink that is down.
+ */
+@Slf4j
+@Service
+public class OutboxRelayService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final DocumentOutboxRepository outboxRepository;
+    private final OutboxSink sink;
+    private final OutboxProperties properties;
+    private final TransactionTemplate writeTx;
+    private final Counter published;
+    private final Counter failed;
+    private volatile LocalDateTime pausedUntil = LocalDateTime.MIN;
+
+    public OutboxRelayService(DocumentOutboxRepository outboxRepository,
+                              OutboxSink sink,
+                              OutboxProperties properties,
+                              MeterRegistry registry,
+                              PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.properties = properties;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.published = Counter.builder("document.outbox.published")
+                .description("Outbox events accepted by the sink")
+                .register(registry);
+        this.failed = Counter.builder("document.outbox.failed")
+                .description("Outbox events whose delivery attempt failed")
+                .register(registry);
+    }
+
+    /**
+     * Publishes one batch of due events.
+     *
+     * @return events delivered; 0 if none were due, the sink failed or the relay is paused
+     */
+    public int relayBatch() {
+        if (LocalDateTime.now().isBefore(pausedUntil)) {
+            return 0;
+        }
+        return writeTx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<DocumentOutboxEvent> batch = outboxRepository.findDueForUpdate(now, properties.getBatchSize());
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<Long> ids = batch.stream().map(DocumentOutboxEvent::getId).toList();
+            try {
+                sink.publish(batch.stream().map(this::toEvent).toList());
+            } catch (Exception e) {
+                int attempts = batch.stream().mapToInt(DocumentOutboxEvent::getAttempts).max().orElse(0) + 1;
+                LocalDateTime nextAttemptAt = LocalDateTime.now().plus(retryDelay(attempts));
+                String error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+                outboxRepository.markFailed(ids, nextAttemptAt,
+                        error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH));
+                failed.increment(batch.size());
+                pausedUntil = nextAttemptAt;
+                log.warn("Outbox delivery of {} events failed (attempt {}), retry at {}: {}",
+                        batch.size(), attempts, nextAttemptAt, error);
+                return 0;
+            }
+            outboxRepository.markDelivered(ids, now);
+            published.increment(batch.size());
+            log.debug("Outbox delivered {} events, ids {}..{}", batch.size(), ids.get(0), ids.get(ids.size() - 1));
+            return batch.size();
+        });
+    }
+
+    /**
+     * Deletes events delivered more than {@code app.outbox.retention} ms ago.
+     *
+     * @return events deleted
+     */
+    public int purgeDelivered() {
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(properties.getRetention()));
+        int total = 0;
+        int deleted;
+        do {
+            deleted = writeTx.execute(status ->
+                    outboxRepository.deleteDelivered(before, properties.getCleanupBatchSize()));
+            total += deleted;
+        } while (deleted == properties.getCleanupBatchSize());
+        return total;
+    }
+
+    private Duration retryDelay(int attempts) {
+        long delay = properties.getRetryDelay() << Math.min(attempts - 1, 20);
+        return Duration.ofMillis(Math.min(delay, properties.getMaxRetryDelay()));
+    }
+
+    private DocumentStatusEvent toEvent(DocumentOutboxEvent event) {
+        return DocumentStatusEvent.builder()
+                .eventId(event.getId())
+                .documentId(event.getDocumentId())
+                .status(event.getStatus())
+                .performedBy(event.getPerformedBy())
+                .occurredAt(event.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package ru.itq.core.service;
+
+import ru.itq.api.dto.DocumentStatusEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the document outbox, chosen with {@code app.outbox.sink.type}. Events come in
+ * outbox id order. An exception fails the whole batch, which the relay retries later, so the sink
+ * may receive an event more than once, and a retried event may arrive after later ones.
+ */
+public interface OutboxSink {
+
+    void publish(List<DocumentStatusEvent> events) throws Exception;
+}
@@ -0,0 +1,103 @@
+package ru.itq.core.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.itq.api.dto.BatchOperationResult;
+import ru.itq.core.config.BatchProperties;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Runs per-document operations of a batch on virtual threads. A single semaphore shared
+ * by all batches caps the number of operations in flight (and thus pool connections in use),
+ * so concurrent batches from workers and HTTP requests cannot exhaust the pool together.
+ */
+@Slf4j
+@Component
+public class ParallelBatchExecutor {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Getter
+    private final int concurrency;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("batch-", 0).factory());
+
+    public ParallelBatchExecutor(DataSource dataSource, BatchProperties batchProperties) {
+        this.concurrency = batchProperties.getParallelism() > 0
+                ? batchProperties.getParallelism()
+                : Math.max(1, poolSize(dataSource) - batchProperties.getReservedConnections());
+        this.permits = new Semaphore(concurrency);
+        log.info("Parallel batch executor: concurrency={}", concurrency);
+    }
+
+    /**
+     * Applies {@code operation} to every id and returns the results in input order.
+     * If an operation throws, the remaining ones still complete and the first failure is rethrown,
+     * as it would be when processing sequentially.
+     */
+    public List<BatchOperationResult> execute(List<Long> ids, Function<Long, BatchOperationResult> operation) {
+        List<Future<BatchOperationResult>> futures = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            futures.add(executor.submit(() -> {
+                permits.acquire();
+                try {
+                    return operation.apply(id);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        List<BatchOperationResult> results = new ArrayList<>(ids.size());
+        RuntimeException failure = null;
+        for (Future<BatchOperationResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException re
+                            ? re
+                            : new IllegalStateException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Interrupted while waiting for batch results", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Cannot determine connection pool size: {}", e.getMessage());
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}